@@ -0,0 +1,143 @@
+package com.indomarco.indostore.benchmark;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.MappedSuperclass;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.cfg.Configuration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Compares bulk inserts of rows whose IDs come from an {@code IDENTITY} column with
+ * rows whose IDs come from a pooled sequence, with Hibernate JDBC batching enabled for both.
+ *
+ * Runs against an in-memory H2 database in MySQL mode by default. To run it against a
+ * local MySQL instead:
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:exec -Djmh.args="BulkInsert \
+ *     -p jdbcUrl=jdbc:mysql://localhost:3306/bench?rewriteBatchedStatements=true -p user=root -p password=secret"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BulkInsertBenchmark {
+    @Param({"jdbc:h2:mem:bulk_insert;MODE=MySQL;DB_CLOSE_DELAY=-1"})
+    public String jdbcUrl;
+
+    @Param({"sa"})
+    public String user;
+
+    @Param({""})
+    public String password;
+
+    /** Rows inserted per benchmark invocation. */
+    @Param({"1000"})
+    public int rows;
+
+    private SessionFactory sessionFactory;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        sessionFactory = new Configuration()
+                .addAnnotatedClass(IdentityRow.class)
+                .addAnnotatedClass(PooledRow.class)
+                .setProperty(AvailableSettings.JAKARTA_JDBC_URL, jdbcUrl)
+                .setProperty(AvailableSettings.JAKARTA_JDBC_USER, user)
+                .setProperty(AvailableSettings.JAKARTA_JDBC_PASSWORD, password)
+                .setProperty(AvailableSettings.HBM2DDL_AUTO, "create-drop")
+                .setProperty(AvailableSettings.STATEMENT_BATCH_SIZE, "50")
+                .setProperty(AvailableSettings.ORDER_INSERTS, "true")
+                .buildSessionFactory();
+    }
+
+    /** Empties both tables, so that every iteration inserts into tables of the same size. */
+    @Setup(Level.Iteration)
+    public void truncate() {
+        sessionFactory.inTransaction(session -> {
+            session.createNativeMutationQuery("delete from identity_rows").executeUpdate();
+            session.createNativeMutationQuery("delete from pooled_rows").executeUpdate();
+        });
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        sessionFactory.close();
+    }
+
+    /** IDENTITY forces Hibernate to run every insert on its own to read the generated key. */
+    @Benchmark
+    public void identityIds() {
+        insert(IdentityRow::new);
+    }
+
+    /** Pooled sequence IDs are known before the insert, so inserts go out in batches of 50. */
+    @Benchmark
+    public void pooledSequenceIds() {
+        insert(PooledRow::new);
+    }
+
+    private void insert(Supplier<? extends Row> factory) {
+        sessionFactory.inTransaction(session -> {
+            for (int i = 0; i < rows; i++) {
+                Row row = factory.get();
+                row.name = "Store " + i;
+                row.address = "Jl. Benchmark No. " + i;
+                session.persist(row);
+                if ((i + 1) % 50 == 0) {
+                    session.flush();
+                    session.clear();
+                }
+            }
+        });
+    }
+
+    /** Columns shared by both row types. */
+    @MappedSuperclass
+    public abstract static class Row {
+        public String name;
+        public String address;
+    }
+
+    /** A row keyed by an auto-increment column, like the entities used to be. */
+    @Entity
+    @Table(name = "identity_rows")
+    public static class IdentityRow extends Row {
+        @Id
+        @GeneratedValue(strategy = GenerationType.IDENTITY)
+        public Long id;
+    }
+
+    /** A row keyed by a pooled sequence, like the entities are now. */
+    @Entity
+    @Table(name = "pooled_rows")
+    public static class PooledRow extends Row {
+        @Id
+        @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "pooled_rows_seq")
+        @SequenceGenerator(name = "pooled_rows_seq", sequenceName = "pooled_rows_seq", allocationSize = 50)
+        public Long id;
+    }
+}
@@ -0,0 +1,91 @@
+package com.indomarco.indostore.benchmark;
+
+import com.indomarco.indostore.utility.PaginationUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.data.domain.Page;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link PaginationUtils#paginate} and {@link PaginationUtils#toPage} over large
+ * in-memory lists, as used for the snapshot and whitelist listings, and what it costs to
+ * walk the page.
+ *
+ * The page is taken from the start, the middle or the end of the list; a sublist view
+ * should cost the same wherever it starts.
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:exec -Djmh.args="Pagination"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PaginationBenchmark {
+    /** Elements in the paginated list. */
+    @Param({"10000", "1000000"})
+    public int elements;
+
+    /** Page size, as passed with {@code size}. */
+    @Param({"50"})
+    public int size;
+
+    /** Where the page is taken: {@code first}, {@code middle} or {@code last}. */
+    @Param({"first", "middle", "last"})
+    public String position;
+
+    private List<Long> list;
+    private int page;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<Long> values = new ArrayList<>(elements);
+        for (long i = 0; i < elements; i++) {
+            values.add(i);
+        }
+        list = List.copyOf(values);
+        int lastPage = (elements - 1) / size;
+        page = switch (position) {
+            case "first" -> 0;
+            case "middle" -> lastPage / 2;
+            case "last" -> lastPage;
+            default -> throw new IllegalArgumentException("Unknown position " + position);
+        };
+    }
+
+    /** The sublist view alone. */
+    @Benchmark
+    public List<Long> paginate() {
+        return PaginationUtils.paginate(list, page, size);
+    }
+
+    /** The sublist wrapped in a Spring Data page with its metadata, as the listings return it. */
+    @Benchmark
+    public Page<Long> toPage() {
+        return PaginationUtils.toPage(list, page, size);
+    }
+
+    /** The sublist and every element of it, as serializing the page does. */
+    @Benchmark
+    public void paginateAndIterate(Blackhole blackhole) {
+        for (Long value : PaginationUtils.paginate(list, page, size)) {
+            blackhole.consume(value);
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.indomarco.indostore.benchmark;
+
+import com.indomarco.indostore.cache.HierarchySnapshot;
+import com.indomarco.indostore.dto.BranchSummary;
+import com.indomarco.indostore.dto.ProvinceSummary;
+import com.indomarco.indostore.dto.StoreSummary;
+import com.indomarco.indostore.entity.Branch;
+import com.indomarco.indostore.entity.Province;
+import com.indomarco.indostore.entity.Store;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static com.indomarco.indostore.utility.PaginationUtils.paginate;
+
+/**
+ * Compares the two ways {@code ProvinceService.searchStoresByProvince} has found the stores
+ * of a province, without the database: flattening and filtering the loaded entity graph
+ * (province, its branches, their stores) on every request, and reading the stores of the
+ * province from the prebuilt {@link HierarchySnapshot}.
+ *
+ * Both look the province up by name, take one page of its stores and one page of the
+ * whitelisted stores, and put them in the response map.
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:exec -Djmh.args="ProvinceSearch"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProvinceSearchBenchmark {
+    /** Provinces; the searched one is the last, so the name lookup passes all of them. */
+    @Param({"38"})
+    public int provinces;
+
+    @Param({"20"})
+    public int branchesPerProvince;
+
+    @Param({"250"})
+    public int storesPerBranch;
+
+    /** Share of the stores that are inactive or deleted and filtered out. */
+    @Param({"0.1"})
+    public double inactiveShare;
+
+    @Param({"0"})
+    public int page;
+
+    @Param({"50"})
+    public int size;
+
+    private String provinceName;
+    private List<Province> provinceEntities;
+    private List<Store> whitelistEntities;
+    private HierarchySnapshot snapshot;
+    private List<StoreSummary> whitelistSummaries;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        provinceEntities = new ArrayList<>();
+        whitelistEntities = new ArrayList<>();
+        List<ProvinceSummary> provinceRows = new ArrayList<>();
+        List<BranchSummary> branchRows = new ArrayList<>();
+        List<StoreSummary> storeRows = new ArrayList<>();
+        whitelistSummaries = new ArrayList<>();
+        long branchId = 0;
+        long storeId = 0;
+        int inactiveEvery = inactiveShare > 0 ? (int) Math.round(1 / inactiveShare) : Integer.MAX_VALUE;
+
+        for (long p = 1; p <= provinces; p++) {
+            Province province = new Province();
+            province.setId(p);
+            province.setName("Province " + p);
+            province.setBranches(new ArrayList<>());
+            provinceEntities.add(province);
+            provinceRows.add(new ProvinceSummary(p, province.getName(), true));
+
+            for (int b = 0; b < branchesPerProvince; b++) {
+                Branch branch = new Branch();
+                branch.setId(++branchId);
+                branch.setName("Branch " + branchId);
+                branch.setProvince(province);
+                branch.setStores(new ArrayList<>());
+                province.getBranches().add(branch);
+                branchRows.add(new BranchSummary(branchId, branch.getName(), true, p, province.getName()));
+
+                for (int s = 0; s < storesPerBranch; s++) {
+                    Store store = new Store();
+                    store.setId(++storeId);
+                    store.setName("Store " + storeId);
+                    store.setAddress("Jl. Benchmark No. " + storeId);
+                    store.setBranch(branch);
+                    store.setIsActive(storeId % inactiveEvery != 0);
+                    branch.getStores().add(store);
+                    boolean whitelisted = storeId % 1000 == 0;
+                    if (whitelisted) whitelistEntities.add(store);
+                    if (!store.getIsActive()) continue;
+                    StoreSummary summary = new StoreSummary(storeId, store.getName(), store.getAddress(), true,
+                            branchId, branch.getName(), p, whitelisted ? storeId : null, 0L);
+                    storeRows.add(summary);
+                    if (whitelisted) whitelistSummaries.add(summary);
+                }
+            }
+        }
+        provinceName = "province " + provinces;
+        snapshot = new HierarchySnapshot(1, Instant.now(), provinceRows, branchRows, storeRows);
+    }
+
+    /** The flatten/filter pipeline over the entity graph, as the search first did. */
+    @Benchmark
+    public Map<String, Object> entityGraph() {
+        Province province = provinceEntities.stream()
+                .filter(p -> p.getName().toLowerCase().contains(provinceName))
+                .findFirst()
+                .orElseThrow(() -> new RuntimeException("Province not found"));
+
+        List<Store> provinceStores = province.getBranches().stream()
+                .flatMap(branch -> branch.getStores().stream())
+                .filter(store -> store.getIsActive() && !store.getIsDeleted())
+                .toList();
+
+        List<Store> whitelistStores = whitelistEntities.stream()
+                .filter(store -> store.getIsActive() && !store.getIsDeleted())
+                .toList();
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("whitelistStores", paginate(whitelistStores, page, size));
+        response.put("provinceStores", paginate(provinceStores, page, size));
+        return response;
+    }
+
+    /** The stores of the province as grouped when the snapshot was built, as the search does now. */
+    @Benchmark
+    public Map<String, Object> snapshot() {
+        ProvinceSummary province = snapshot.findFirstProvinceByName(provinceName)
+                .orElseThrow(() -> new RuntimeException("Province not found"));
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("whitelistStores", paginate(whitelistSummaries, page, size));
+        response.put("provinceStores", paginate(snapshot.getStoresOfProvince(province.id()), page, size));
+        return response;
+    }
+}
@@ -0,0 +1,92 @@
+package com.indomarco.indostore.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.indomarco.indostore.dto.StoreSummary;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static com.indomarco.indostore.utility.PaginationUtils.pageInfo;
+import static com.indomarco.indostore.utility.PaginationUtils.toPage;
+
+/**
+ * Measures building and serializing the {@code Map.of("message", ..., "data", ...)}
+ * envelopes the controllers return, with an ObjectMapper configured like the one
+ * Spring Boot hands to the message converters.
+ *
+ * Covers a listing page of store summaries with its pagination metadata, a single store,
+ * and an error response.
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:exec -Djmh.args="ResponseEnvelope"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResponseEnvelopeBenchmark {
+    /** Stores in the listing page. */
+    @Param({"10", "50", "500"})
+    public int size;
+
+    private ObjectMapper objectMapper;
+    private List<StoreSummary> stores;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        stores = new ArrayList<>();
+        for (long i = 1; i <= 10_000; i++) {
+            stores.add(new StoreSummary(i, "Store " + i, "Jl. Benchmark No. " + i, true,
+                    i / 250 + 1, "Branch " + (i / 250 + 1), i / 5000 + 1, i % 1000 == 0 ? i : null, 0L));
+        }
+    }
+
+    /** GET /api/stores: one page of summaries and its metadata. */
+    @Benchmark
+    public byte[] listing() throws JsonProcessingException {
+        Page<StoreSummary> page = toPage(stores, 0, size);
+        return objectMapper.writeValueAsBytes(Map.of(
+                "message", "Stores fetched successfully",
+                "data", page.getContent(),
+                "pagination", pageInfo(page)
+        ));
+    }
+
+    /** GET /api/stores/{id}: one summary. */
+    @Benchmark
+    public byte[] detail() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(Map.of(
+                "message", "Store fetched successfully",
+                "data", stores.get(0)
+        ));
+    }
+
+    /** Any failed request: the message and the exception text. */
+    @Benchmark
+    public byte[] error() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(Map.of(
+                "message", "Failed to fetch store",
+                "error", "Store not found"
+        ));
+    }
+}
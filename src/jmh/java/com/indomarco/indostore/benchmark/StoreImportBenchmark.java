@@ -0,0 +1,104 @@
+package com.indomarco.indostore.benchmark;
+
+import com.indomarco.indostore.IndostoreApplication;
+import com.indomarco.indostore.cache.HierarchySnapshotCache;
+import com.indomarco.indostore.dto.BranchSummary;
+import com.indomarco.indostore.dto.StoreImportResult;
+import com.indomarco.indostore.entity.User;
+import com.indomarco.indostore.repository.UserRepository;
+import com.indomarco.indostore.service.StoreImportService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures a bulk import of stores through {@link StoreImportService}, with the whole
+ * application running on the synthetic dataset of the {@code h2} profile, so that the
+ * branch checks, audit entries, search index updates and the hierarchy rebuild are included.
+ *
+ * Each invocation imports one CSV of {@code rows} stores spread over the seeded branches.
+ * The imported stores are kept, so every iteration imports into a larger table than the
+ * one before. H2 has to be on the classpath, which the benchmark profile takes care of:
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:exec -Djmh.args="StoreImport"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class StoreImportBenchmark {
+    /** Stores in each imported file. */
+    @Param({"100000"})
+    public int rows;
+
+    private ConfigurableApplicationContext context;
+    private StoreImportService importService;
+    private List<BranchSummary> branches;
+    private User user;
+    private byte[] csv;
+    private int iteration;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(IndostoreApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("h2")
+                .run();
+        importService = context.getBean(StoreImportService.class);
+        branches = context.getBean(HierarchySnapshotCache.class).get().getBranches();
+        user = context.getBean(UserRepository.class).findAll(PageRequest.of(0, 1)).getContent().get(0);
+    }
+
+    /** Builds the file of the iteration, with names that were not imported before. */
+    @Setup(Level.Iteration)
+    public void createFile() {
+        iteration++;
+        StringBuilder file = new StringBuilder(rows * 64).append("name,address,branchId\n");
+        for (int i = 0; i < rows; i++) {
+            BranchSummary branch = branches.get(i % branches.size());
+            file.append("Toko Impor ").append(iteration).append('-').append(i)
+                    .append(",\"Jl. Impor No. ").append(i).append(", ").append(branch.name()).append("\",")
+                    .append(branch.id()).append('\n');
+        }
+        csv = file.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public StoreImportResult importCsv() throws IOException {
+        StoreImportResult result = importService.importStores(new ByteArrayInputStream(csv),
+                StoreImportService.Format.CSV, user);
+        if (result.getImported() != rows) {
+            throw new IllegalStateException("Imported " + result.getImported() + " of " + rows + " rows: "
+                    + result.getErrors().stream().limit(5).toList());
+        }
+        return result;
+    }
+}
@@ -0,0 +1,133 @@
+package com.indomarco.indostore.benchmark;
+
+import com.indomarco.indostore.cache.LongObjectMap;
+import com.indomarco.indostore.entity.Branch;
+import com.indomarco.indostore.entity.Province;
+import com.indomarco.indostore.entity.Store;
+import com.indomarco.indostore.entity.WhitelistStore;
+import org.hibernate.SessionFactory;
+import org.hibernate.boot.model.naming.CamelCaseToUnderscoresNamingStrategy;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.cfg.Configuration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares looking a store up by ID in the {@link LongObjectMap} behind
+ * {@code SummaryRegistry}, in a {@code ConcurrentHashMap<Long, Store>}, and in the
+ * database through a fresh persistence context, like {@code StoreRepository.findById}
+ * does in a request.
+ *
+ * Each invocation looks up one random existing store. Add {@code -t 8} to the arguments
+ * to measure the maps under concurrent readers:
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:exec -Djmh.args="StoreLookup -t 8"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StoreLookupBenchmark {
+    @Param({"jdbc:h2:mem:store_lookup;MODE=MySQL;DB_CLOSE_DELAY=-1"})
+    public String jdbcUrl;
+
+    /** Stores in the database and in both maps. */
+    @Param({"10000"})
+    public int stores;
+
+    private SessionFactory sessionFactory;
+    private long[] ids;
+    private LongObjectMap<Store> registry;
+    private ConcurrentHashMap<Long, Store> concurrentMap;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        sessionFactory = new Configuration()
+                .addAnnotatedClass(Province.class)
+                .addAnnotatedClass(Branch.class)
+                .addAnnotatedClass(Store.class)
+                .addAnnotatedClass(WhitelistStore.class)
+                .setPhysicalNamingStrategy(new CamelCaseToUnderscoresNamingStrategy())
+                .setProperty(AvailableSettings.JAKARTA_JDBC_URL, jdbcUrl)
+                .setProperty(AvailableSettings.JAKARTA_JDBC_USER, "sa")
+                .setProperty(AvailableSettings.JAKARTA_JDBC_PASSWORD, "")
+                .setProperty(AvailableSettings.HBM2DDL_AUTO, "create-drop")
+                .setProperty(AvailableSettings.STATEMENT_BATCH_SIZE, "50")
+                .buildSessionFactory();
+
+        ids = new long[stores];
+        registry = new LongObjectMap<>();
+        concurrentMap = new ConcurrentHashMap<>();
+        sessionFactory.inTransaction(session -> {
+            Province province = new Province();
+            province.setName("Benchmark");
+            session.persist(province);
+            Branch branch = new Branch();
+            branch.setName("Benchmark");
+            branch.setProvince(province);
+            session.persist(branch);
+            for (int i = 0; i < stores; i++) {
+                Store store = new Store();
+                store.setName("Store " + i);
+                store.setAddress("Jl. Benchmark No. " + i);
+                store.setBranch(branch);
+                session.persist(store);
+                ids[i] = store.getId();
+                registry.put(store.getId(), store);
+                concurrentMap.put(store.getId(), store);
+            }
+        });
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        sessionFactory.close();
+    }
+
+    /** Per-thread source of the IDs to look up. */
+    @State(Scope.Thread)
+    public static class Lookup {
+        private final SplittableRandom random = new SplittableRandom(42);
+
+        long next(long[] ids) {
+            return ids[random.nextInt(ids.length)];
+        }
+    }
+
+    /** Primitive keys, no lock: the read path of {@code SummaryRegistry}. */
+    @Benchmark
+    public Store longObjectMap(Lookup lookup) {
+        return registry.get(lookup.next(ids));
+    }
+
+    /** Boxes every key to probe the map. */
+    @Benchmark
+    public Store concurrentHashMap(Lookup lookup) {
+        return concurrentMap.get(lookup.next(ids));
+    }
+
+    /** One primary key select, and the entity graph it fetches eagerly, per lookup. */
+    @Benchmark
+    public Store findById(Lookup lookup) {
+        long id = lookup.next(ids);
+        return sessionFactory.fromTransaction(session -> session.find(Store.class, id));
+    }
+}
@@ -0,0 +1,105 @@
+package com.indomarco.indostore.benchmark;
+
+import com.indomarco.indostore.entity.User;
+import com.indomarco.indostore.repository.UserRepository;
+import com.indomarco.indostore.service.UserService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures authenticating a request with {@link UserService#findByToken}, as every
+ * controller does through the Authorization header.
+ *
+ * The repository behind the service is an in-memory stand-in, so the numbers are the cost
+ * of the token cache and of rejecting unknown tokens, not of the database: a known token
+ * is always answered from the cache once warmed up, and an unknown one is looked up and
+ * rejected with an exception every time. Add {@code -t 8} to the arguments to measure
+ * the cache under concurrent requests:
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:exec -Djmh.args="TokenAuthentication -t 8"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TokenAuthenticationBenchmark {
+    /** Users logged in, each with its own token. */
+    @Param({"1000"})
+    public int users;
+
+    private UserService userService;
+    private String[] tokens;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Map<String, User> byToken = new HashMap<>();
+        tokens = new String[users];
+        for (int i = 0; i < users; i++) {
+            User user = new User();
+            user.setId((long) i + 1);
+            user.setEmail("user" + i + "@indostore.test");
+            user.setName("User " + i);
+            user.setToken(UUID.randomUUID().toString());
+            byToken.put(user.getToken(), user);
+            tokens[i] = user.getToken();
+        }
+        UserRepository repository = (UserRepository) Proxy.newProxyInstance(
+                UserRepository.class.getClassLoader(), new Class<?>[]{UserRepository.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("findByToken")) return Optional.ofNullable(byToken.get((String) args[0]));
+                    throw new UnsupportedOperationException(method.getName());
+                });
+        userService = new UserService(repository, 10_000, Duration.ofMinutes(15), new SimpleMeterRegistry());
+    }
+
+    /** Per-thread source of the tokens sent. */
+    @State(Scope.Thread)
+    public static class Requests {
+        private final SplittableRandom random = new SplittableRandom(42);
+        private final String unknown = UUID.randomUUID().toString();
+
+        String next(String[] tokens) {
+            return tokens[random.nextInt(tokens.length)];
+        }
+    }
+
+    /** A known token, answered from the cache. */
+    @Benchmark
+    public User knownToken(Requests requests) {
+        return userService.findByToken(requests.next(tokens));
+    }
+
+    /** An unknown token, looked up and rejected with 401. */
+    @Benchmark
+    public Object unknownToken(Requests requests) {
+        try {
+            return userService.findByToken(requests.unknown);
+        } catch (ResponseStatusException e) {
+            return e;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.indomarco.indostore.cache;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.indomarco.indostore.utility.TransactionUtils.afterCommit;
+
+/**
+ * Counts the committed changes to each table, to derive ETags from.
+ *
+ * The writing services call {@link #changed(String)} with the table they wrote to, and
+ * the counter moves once the transaction commits. A response built from a table can then
+ * be tagged with the counter read before building it: as long as the counter has not moved,
+ * the response would be identical and a conditional GET can be answered with 304 without
+ * building it again.
+ *
+ * Counters start from zero on every boot, so {@link #etag(long...)} prefixes them with the
+ * boot epoch of this instance, and tags handed out before a restart never match.
+ */
+@Component
+public class ChangeCounters {
+    /** The tables changes are counted for. */
+    public static final String PROVINCES = "provinces";
+    public static final String BRANCHES = "branches";
+    public static final String STORES = "stores";
+    public static final String WHITELIST_STORES = "whitelist_stores";
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final Map<String, AtomicLong> counters = Map.of(
+            PROVINCES, new AtomicLong(),
+            BRANCHES, new AtomicLong(),
+            STORES, new AtomicLong(),
+            WHITELIST_STORES, new AtomicLong());
+
+    /**
+     * Counts a change to a table once the current transaction commits.
+     *
+     * @param table One of {@link #PROVINCES}, {@link #BRANCHES}, {@link #STORES} or {@link #WHITELIST_STORES}.
+     */
+    public void changed(String table) {
+        AtomicLong counter = counter(table);
+        afterCommit(counter::incrementAndGet);
+    }
+
+    /**
+     * Returns the number of committed changes to a table since boot.
+     *
+     * @param table One of {@link #PROVINCES}, {@link #BRANCHES}, {@link #STORES} or {@link #WHITELIST_STORES}.
+     * @return The counter of the table.
+     */
+    public long get(String table) {
+        return counter(table).get();
+    }
+
+    /**
+     * Builds a strong ETag, unquoted, from the boot epoch and the given versions or counters.
+     *
+     * @param parts The versions or counters the tagged response depends on, in a fixed order.
+     * @return The tag.
+     */
+    public String etag(long... parts) {
+        StringBuilder tag = new StringBuilder(epoch);
+        for (long part : parts) {
+            tag.append('-').append(Long.toString(part, 36));
+        }
+        return tag.toString();
+    }
+
+    private AtomicLong counter(String table) {
+        AtomicLong counter = counters.get(table);
+        if (counter == null) throw new IllegalArgumentException("No change counter for table " + table);
+        return counter;
+    }
+}
@@ -0,0 +1,172 @@
+package com.indomarco.indostore.cache;
+
+import com.indomarco.indostore.dto.BranchSummary;
+import com.indomarco.indostore.dto.ProvinceSummary;
+import com.indomarco.indostore.dto.StoreSummary;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Immutable, ID-indexed view of the active, not deleted provinces, branches and stores.
+ *
+ * Built in one pass from the rows read by {@link HierarchySnapshotCache} and never
+ * modified afterwards, so any number of threads can read it without locking. All
+ * lists are ordered by ID, like the database listings they replace.
+ */
+public final class HierarchySnapshot {
+    private final long version;
+    private final Instant builtAt;
+    private final List<ProvinceSummary> provinces;
+    private final List<BranchSummary> branches;
+    private final Map<Long, ProvinceSummary> provincesById;
+    private final Map<Long, BranchSummary> branchesById;
+    private final Map<Long, StoreSummary> storesById;
+    private final Map<Long, List<BranchSummary>> branchesByProvince;
+    private final Map<Long, List<StoreSummary>> storesByProvince;
+    private final Map<Long, List<StoreSummary>> storesByBranch;
+
+    /**
+     * Builds a snapshot from the rows of the three tables.
+     *
+     * @param version The version of the snapshot, increasing with every build.
+     * @param builtAt When the rows were read.
+     * @param provinces The active, not deleted provinces.
+     * @param branches The active, not deleted branches.
+     * @param stores The active, not deleted stores.
+     */
+    public HierarchySnapshot(long version, Instant builtAt, List<ProvinceSummary> provinces,
+                             List<BranchSummary> branches, List<StoreSummary> stores) {
+        this.version = version;
+        this.builtAt = builtAt;
+        this.provinces = sorted(provinces, ProvinceSummary::id);
+        this.branches = sorted(branches, BranchSummary::id);
+        List<StoreSummary> sortedStores = sorted(stores, StoreSummary::id);
+
+        this.provincesById = index(this.provinces, ProvinceSummary::id);
+        this.branchesById = index(this.branches, BranchSummary::id);
+        this.storesById = index(sortedStores, StoreSummary::id);
+        this.branchesByProvince = group(this.branches, BranchSummary::provinceId);
+        this.storesByProvince = group(sortedStores, StoreSummary::provinceId);
+        this.storesByBranch = group(sortedStores, StoreSummary::branchId);
+    }
+
+    private static <T> List<T> sorted(List<T> rows, Function<T, Long> id) {
+        List<T> copy = new ArrayList<>(rows);
+        copy.sort(Comparator.comparing(id));
+        return List.copyOf(copy);
+    }
+
+    private static <T> Map<Long, T> index(List<T> rows, Function<T, Long> id) {
+        Map<Long, T> byId = new HashMap<>(rows.size() * 2);
+        for (T row : rows) {
+            byId.put(id.apply(row), row);
+        }
+        return Map.copyOf(byId);
+    }
+
+    private static <T> Map<Long, List<T>> group(List<T> rows, Function<T, Long> key) {
+        Map<Long, List<T>> groups = new HashMap<>();
+        for (T row : rows) {
+            groups.computeIfAbsent(key.apply(row), k -> new ArrayList<>()).add(row);
+        }
+        Map<Long, List<T>> frozen = new HashMap<>(groups.size() * 2);
+        groups.forEach((k, v) -> frozen.put(k, List.copyOf(v)));
+        return Map.copyOf(frozen);
+    }
+
+    /** Returns the version of the snapshot; a later build always has a higher version. */
+    public long getVersion() { return version; }
+
+    /** Returns when the rows of the snapshot were read from the database. */
+    public Instant getBuiltAt() { return builtAt; }
+
+    /** Returns the active, not deleted provinces, ordered by ID. */
+    public List<ProvinceSummary> getProvinces() { return provinces; }
+
+    /** Returns the active, not deleted branches, ordered by ID. */
+    public List<BranchSummary> getBranches() { return branches; }
+
+    /** Returns the number of active, not deleted stores. */
+    public int getStoreCount() { return storesById.size(); }
+
+    /**
+     * Returns an active, not deleted province.
+     *
+     * @param id The ID of the province.
+     * @return The province, or empty when it is not in the snapshot.
+     */
+    public Optional<ProvinceSummary> getProvince(long id) {
+        return Optional.ofNullable(provincesById.get(id));
+    }
+
+    /**
+     * Returns an active, not deleted branch.
+     *
+     * @param id The ID of the branch.
+     * @return The branch, or empty when it is not in the snapshot.
+     */
+    public Optional<BranchSummary> getBranch(long id) {
+        return Optional.ofNullable(branchesById.get(id));
+    }
+
+    /**
+     * Returns an active, not deleted store.
+     *
+     * @param id The ID of the store.
+     * @return The store, or empty when it is not in the snapshot.
+     */
+    public Optional<StoreSummary> getStore(long id) {
+        return Optional.ofNullable(storesById.get(id));
+    }
+
+    /**
+     * Returns the active, not deleted branches of a province.
+     *
+     * @param provinceId The ID of the province.
+     * @return The branches ordered by ID.
+     */
+    public List<BranchSummary> getBranchesOfProvince(long provinceId) {
+        return branchesByProvince.getOrDefault(provinceId, List.of());
+    }
+
+    /**
+     * Returns the active, not deleted stores of a province, through any of its branches.
+     *
+     * @param provinceId The ID of the province.
+     * @return The stores ordered by ID.
+     */
+    public List<StoreSummary> getStoresOfProvince(long provinceId) {
+        return storesByProvince.getOrDefault(provinceId, List.of());
+    }
+
+    /**
+     * Returns the active, not deleted stores of a branch.
+     *
+     * @param branchId The ID of the branch.
+     * @return The stores ordered by ID.
+     */
+    public List<StoreSummary> getStoresOfBranch(long branchId) {
+        return storesByBranch.getOrDefault(branchId, List.of());
+    }
+
+    /**
+     * Returns the first province, by ID, whose name contains the given text, ignoring case.
+     *
+     * @param name The text to look for.
+     * @return The province, or empty when none matches.
+     */
+    public Optional<ProvinceSummary> findFirstProvinceByName(String name) {
+        String needle = name.toLowerCase(Locale.ROOT);
+        return provinces.stream()
+                .filter(p -> p.name() != null && p.name().toLowerCase(Locale.ROOT).contains(needle))
+                .findFirst();
+    }
+}
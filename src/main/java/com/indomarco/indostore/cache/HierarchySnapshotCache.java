@@ -0,0 +1,189 @@
+package com.indomarco.indostore.cache;
+
+import com.indomarco.indostore.dto.BranchSummary;
+import com.indomarco.indostore.dto.ProvinceSummary;
+import com.indomarco.indostore.dto.StoreSummary;
+import com.indomarco.indostore.repository.BranchRepository;
+import com.indomarco.indostore.repository.ProvinceRepository;
+import com.indomarco.indostore.repository.StoreRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static com.indomarco.indostore.utility.TransactionUtils.afterCommit;
+
+/**
+ * Holds the current {@link HierarchySnapshot} of the provinces, branches and stores.
+ *
+ * The first read builds the snapshot from three queries run in one read-only transaction.
+ * Afterwards, reads return the current snapshot without touching the database. When a
+ * province, branch, store or whitelist entry changes, the writing service calls
+ * {@link #invalidate()}; once its transaction commits, a new snapshot is built on a
+ * background thread and swapped in atomically. Changes arriving while a build runs are
+ * folded into one more build, so a burst of writes costs at most two builds. Every
+ * invalidation is counted, including those arriving while the first snapshot is being
+ * built, which is rebuilt right away when any did.
+ *
+ * Until the new snapshot is swapped in, reads keep getting the previous one; the lag
+ * is the time of one build. A failed rebuild is retried after
+ * {@code indostore.hierarchy.retry-delay}, doubled after each further failure up to a
+ * minute; changes arriving meanwhile are folded into the retry.
+ *
+ * The version and age of the snapshot are published as the
+ * {@code indostore.hierarchy.snapshot.version} and {@code indostore.hierarchy.snapshot.age}
+ * metrics.
+ */
+@Component
+public class HierarchySnapshotCache implements DisposableBean {
+    private static final Logger log = LoggerFactory.getLogger(HierarchySnapshotCache.class);
+    private static final Duration MAX_RETRY_DELAY = Duration.ofMinutes(1);
+
+    private final ProvinceRepository provinceRepository;
+    private final BranchRepository branchRepository;
+    private final StoreRepository storeRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final AtomicReference<HierarchySnapshot> snapshot = new AtomicReference<>();
+    private final AtomicLong versions = new AtomicLong();
+    /** Incremented on every invalidation, so that a first build racing with one is redone. */
+    private final AtomicLong generation = new AtomicLong();
+    private final AtomicBoolean rebuildRequested = new AtomicBoolean();
+    private final Duration retryDelay;
+    /** Rebuilds failed in a row; only used by the rebuilder thread. */
+    private int failures;
+    private final ScheduledExecutorService rebuilder = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "hierarchy-snapshot");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Constructor for HierarchySnapshotCache.
+     *
+     * @param provinceRepository The ProvinceRepository the provinces are read from.
+     * @param branchRepository The BranchRepository the branches are read from.
+     * @param storeRepository The StoreRepository the stores are read from.
+     * @param transactionManager The transaction manager used to read the three tables consistently.
+     * @param retryDelay How long to wait before retrying a failed rebuild the first time.
+     * @param registry The MeterRegistry the snapshot version and age are published to.
+     */
+    public HierarchySnapshotCache(ProvinceRepository provinceRepository, BranchRepository branchRepository,
+                                  StoreRepository storeRepository, PlatformTransactionManager transactionManager,
+                                  @Value("${indostore.hierarchy.retry-delay:1s}") Duration retryDelay,
+                                  MeterRegistry registry) {
+        this.retryDelay = retryDelay;
+        this.provinceRepository = provinceRepository;
+        this.branchRepository = branchRepository;
+        this.storeRepository = storeRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        Gauge.builder("indostore.hierarchy.snapshot.version", snapshot, ref -> {
+                    HierarchySnapshot current = ref.get();
+                    return current == null ? 0 : current.getVersion();
+                })
+                .description("Version of the hierarchy snapshot being served")
+                .register(registry);
+        Gauge.builder("indostore.hierarchy.snapshot.age", snapshot, ref -> {
+                    HierarchySnapshot current = ref.get();
+                    return current == null ? 0 : Duration.between(current.getBuiltAt(), Instant.now()).toMillis() / 1000.0;
+                })
+                .description("Seconds since the hierarchy snapshot being served was read")
+                .baseUnit("seconds")
+                .register(registry);
+    }
+
+    /**
+     * Returns the current snapshot, building it if none has been built yet.
+     *
+     * @return The snapshot.
+     */
+    public HierarchySnapshot get() {
+        HierarchySnapshot current = snapshot.get();
+        if (current != null) return current;
+        synchronized (this) {
+            current = snapshot.get();
+            if (current == null) {
+                long builtGeneration = generation.get();
+                current = build();
+                snapshot.set(current);
+                // Invalidations seen before the snapshot was set found nothing to rebuild
+                if (generation.get() != builtGeneration) requestRebuild();
+            }
+            return current;
+        }
+    }
+
+    /**
+     * Rebuilds the snapshot in the background once the current transaction commits.
+     */
+    public void invalidate() {
+        afterCommit(() -> {
+            generation.incrementAndGet();
+            // Without a snapshot, the first read builds one, or the build in progress is redone
+            if (snapshot.get() != null) requestRebuild();
+        });
+    }
+
+    private void requestRebuild() {
+        if (rebuildRequested.compareAndSet(false, true)) {
+            rebuilder.execute(this::rebuild);
+        }
+    }
+
+    private void rebuild() {
+        rebuildRequested.set(false);
+        try {
+            HierarchySnapshot rebuilt = build();
+            synchronized (this) {
+                snapshot.set(rebuilt);
+            }
+            failures = 0;
+        } catch (RuntimeException e) {
+            failures++;
+            Duration delay = retryDelay.multipliedBy(1L << Math.min(failures - 1, 16));
+            if (delay.compareTo(MAX_RETRY_DELAY) > 0) delay = MAX_RETRY_DELAY;
+            log.error("Failed to rebuild the hierarchy snapshot; serving version {}, retrying in {} ms",
+                    snapshot.get().getVersion(), delay.toMillis(), e);
+            // Unless a change arriving during the build already queued a rebuild
+            if (rebuildRequested.compareAndSet(false, true)) {
+                rebuilder.schedule(this::rebuild, delay.toMillis(), TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    private HierarchySnapshot build() {
+        long start = System.nanoTime();
+        HierarchySnapshot built = readOnlyTransaction.execute(status -> {
+            Instant readAt = Instant.now();
+            List<ProvinceSummary> provinces = provinceRepository.findActiveSummaries(Pageable.unpaged()).getContent();
+            List<BranchSummary> branches = branchRepository.findActiveSummaries(Pageable.unpaged()).getContent();
+            List<StoreSummary> stores = storeRepository.findActiveSummaries(Pageable.unpaged()).getContent();
+            return new HierarchySnapshot(versions.incrementAndGet(), readAt, provinces, branches, stores);
+        });
+        log.info("Built hierarchy snapshot version {} with {} provinces, {} branches and {} stores in {} ms",
+                built.getVersion(), built.getProvinces().size(), built.getBranches().size(), built.getStoreCount(),
+                (System.nanoTime() - start) / 1_000_000);
+        return built;
+    }
+
+    @Override
+    public void destroy() {
+        rebuilder.shutdownNow();
+    }
+}
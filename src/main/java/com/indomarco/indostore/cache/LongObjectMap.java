@@ -0,0 +1,224 @@
+package com.indomarco.indostore.cache;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * Concurrent map from primitive {@code long} keys to objects, built for lookups that
+ * vastly outnumber writes.
+ *
+ * Keys are spread over a fixed number of stripes. Each stripe is an open-addressing
+ * table (linear probing over parallel {@code long[]} and {@code Object[]} arrays), so a
+ * lookup neither boxes its key nor takes a lock: it reads the current table of the
+ * stripe and probes it. A write locks only its stripe and changes the table in place,
+ * storing the key before publishing the value with release semantics, so a reader that
+ * sees the value also sees its key. A table is only copied when it grows, which makes
+ * writes cost amortized constant time whatever the size of the map.
+ *
+ * A removed key keeps its slot, marked as removed, so that no probe sequence is ever
+ * broken under a concurrent reader, and a slot never changes key while its table is in
+ * use. Removed slots are dropped when the table is copied.
+ *
+ * Every write to a stripe bumps its generation. {@link #stamp(long)} and
+ * {@link #putIfUnchanged(long, Object, long)} use it to publish a value loaded from
+ * elsewhere only when no write to its stripe happened during the load.
+ *
+ * @param <V> The type of the values.
+ */
+public final class LongObjectMap<V> {
+    private static final int STRIPE_BITS = 6;
+    private static final int STRIPES = 1 << STRIPE_BITS;
+    private static final int MIN_CAPACITY = 8;
+
+    /** The value of a removed slot; a null value marks a free slot. */
+    private static final Object REMOVED = new Object();
+
+    private static final VarHandle VALUES = MethodHandles.arrayElementVarHandle(Object[].class);
+
+    /** An open-addressing table, replaced by a larger copy when it fills up. */
+    private static final class Table {
+        final long[] keys;
+        final Object[] values;
+
+        Table(int capacity) {
+            this.keys = new long[capacity];
+            this.values = new Object[capacity];
+        }
+    }
+
+    /** One stripe; its monitor serializes the writes to it. */
+    private static final class Stripe {
+        volatile Table table = new Table(MIN_CAPACITY);
+        volatile long generation;
+        /** Live entries. */
+        volatile int size;
+        /** Slots taken by live or removed entries. */
+        int used;
+    }
+
+    private final Stripe[] stripes = new Stripe[STRIPES];
+
+    /** Creates an empty map. */
+    public LongObjectMap() {
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    private static long mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return h ^ (h >>> 29);
+    }
+
+    private Stripe stripeOf(long hash) {
+        return stripes[(int) (hash >>> (64 - STRIPE_BITS))];
+    }
+
+    /** Returns the slot holding the key, or the free slot where it would go. */
+    private static int slotOf(Table table, long key, long hash) {
+        int mask = table.keys.length - 1;
+        int slot = (int) hash & mask;
+        while (VALUES.getAcquire(table.values, slot) != null && table.keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * Returns the value mapped to a key.
+     *
+     * @param key The key.
+     * @return The value, or null when the key is not mapped.
+     */
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        long hash = mix(key);
+        Table table = stripeOf(hash).table;
+        Object value = VALUES.getAcquire(table.values, slotOf(table, key, hash));
+        return value == REMOVED ? null : (V) value;
+    }
+
+    /**
+     * Returns the generation of the stripe of a key, to be passed to
+     * {@link #putIfUnchanged(long, Object, long)}.
+     *
+     * @param key The key.
+     * @return The number of writes to the stripe of the key so far.
+     */
+    public long stamp(long key) {
+        return stripeOf(mix(key)).generation;
+    }
+
+    /**
+     * Maps a key to a value, replacing any previous value.
+     *
+     * @param key The key.
+     * @param value The value, not null.
+     */
+    public void put(long key, V value) {
+        if (value == null) throw new IllegalArgumentException("Value must not be null");
+        long hash = mix(key);
+        Stripe stripe = stripeOf(hash);
+        synchronized (stripe) {
+            store(stripe, key, value, hash);
+        }
+    }
+
+    /**
+     * Maps a key to a value unless the stripe of the key was written to since the stamp was taken.
+     *
+     * @param key The key.
+     * @param value The value, not null.
+     * @param stamp The value {@link #stamp(long)} returned before the value was loaded.
+     * @return True when the value was stored.
+     */
+    public boolean putIfUnchanged(long key, V value, long stamp) {
+        if (value == null) throw new IllegalArgumentException("Value must not be null");
+        long hash = mix(key);
+        Stripe stripe = stripeOf(hash);
+        synchronized (stripe) {
+            if (stripe.generation != stamp) return false;
+            store(stripe, key, value, hash);
+            return true;
+        }
+    }
+
+    /**
+     * Removes the mapping of a key, if any.
+     *
+     * @param key The key.
+     */
+    public void remove(long key) {
+        long hash = mix(key);
+        Stripe stripe = stripeOf(hash);
+        synchronized (stripe) {
+            Table table = stripe.table;
+            int slot = slotOf(table, key, hash);
+            Object previous = table.values[slot];
+            if (previous != null && previous != REMOVED) {
+                VALUES.setRelease(table.values, slot, REMOVED);
+                stripe.size = stripe.size - 1;
+            }
+            stripe.generation = stripe.generation + 1;
+        }
+    }
+
+    /** Removes every mapping. */
+    public void clear() {
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                stripe.table = new Table(MIN_CAPACITY);
+                stripe.size = 0;
+                stripe.used = 0;
+                stripe.generation = stripe.generation + 1;
+            }
+        }
+    }
+
+    /** Returns the number of mappings; only a snapshot while writes are in progress. */
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            size += stripe.size;
+        }
+        return size;
+    }
+
+    /** Stores a mapping; the caller holds the lock of the stripe. */
+    private static void store(Stripe stripe, long key, Object value, long hash) {
+        Table table = stripe.table;
+        int slot = slotOf(table, key, hash);
+        Object previous = table.values[slot];
+        if (previous == null) {
+            if ((stripe.used + 1) * 4 > table.keys.length * 3) {
+                table = copy(stripe, table);
+                slot = slotOf(table, key, hash);
+            }
+            stripe.used++;
+            table.keys[slot] = key;
+        }
+        VALUES.setRelease(table.values, slot, value);
+        if (previous == null || previous == REMOVED) stripe.size = stripe.size + 1;
+        stripe.generation = stripe.generation + 1;
+    }
+
+    /** Copies the live entries into a table sized for them, and publishes it. */
+    private static Table copy(Stripe stripe, Table table) {
+        int capacity = MIN_CAPACITY;
+        while (capacity * 3 < (stripe.size + 1) * 8) capacity <<= 1;
+        Table copy = new Table(capacity);
+        int used = 0;
+        for (int i = 0; i < table.keys.length; i++) {
+            Object value = table.values[i];
+            if (value != null && value != REMOVED) {
+                int slot = slotOf(copy, table.keys[i], mix(table.keys[i]));
+                copy.keys[slot] = table.keys[i];
+                copy.values[slot] = value;
+                used++;
+            }
+        }
+        stripe.used = used;
+        stripe.table = copy;
+        return copy;
+    }
+}
@@ -0,0 +1,145 @@
+package com.indomarco.indostore.cache;
+
+import com.indomarco.indostore.dto.BranchSummary;
+import com.indomarco.indostore.dto.StoreSummary;
+import com.indomarco.indostore.repository.BranchRepository;
+import com.indomarco.indostore.repository.StoreRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongFunction;
+
+import static com.indomarco.indostore.utility.TransactionUtils.afterCommit;
+
+/**
+ * Registry of the stores and branches looked up by ID, keyed by primitive {@code long}
+ * in a {@link LongObjectMap} so that a lookup neither boxes its key nor blocks.
+ *
+ * A store or branch is read from the database the first time it is looked up and kept
+ * until it changes. The writing services report changes, and the affected entries are
+ * dropped once the transaction commits:
+ * <ul>
+ *     <li>a store change drops that store;</li>
+ *     <li>a branch change drops that branch and every store, since stores hold the name of their branch;</li>
+ *     <li>a province change drops every branch, since branches hold the name of their province;</li>
+ *     <li>a whitelist change drops every store, since stores hold the ID of their whitelist entry.</li>
+ * </ul>
+ * A load that races with such a change is not published.
+ *
+ * Hits and misses are published as the {@code indostore.cache.requests} metric
+ * tagged {@code cache=store-summaries} and {@code cache=branch-summaries}.
+ */
+@Component
+public class SummaryRegistry {
+    private final StoreRepository storeRepository;
+    private final BranchRepository branchRepository;
+    private final LongObjectMap<StoreSummary> stores = new LongObjectMap<>();
+    private final LongObjectMap<BranchSummary> branches = new LongObjectMap<>();
+    private final AtomicLong storeHits = new AtomicLong();
+    private final AtomicLong storeMisses = new AtomicLong();
+    private final AtomicLong branchHits = new AtomicLong();
+    private final AtomicLong branchMisses = new AtomicLong();
+
+    /**
+     * Constructor for SummaryRegistry.
+     *
+     * @param storeRepository The StoreRepository the stores are loaded from.
+     * @param branchRepository The BranchRepository the branches are loaded from.
+     * @param registry The MeterRegistry the hit and miss counters are published to.
+     */
+    public SummaryRegistry(StoreRepository storeRepository, BranchRepository branchRepository, MeterRegistry registry) {
+        this.storeRepository = storeRepository;
+        this.branchRepository = branchRepository;
+        register(registry, "store-summaries", stores, storeHits, storeMisses);
+        register(registry, "branch-summaries", branches, branchHits, branchMisses);
+    }
+
+    private static void register(MeterRegistry registry, String cache, LongObjectMap<?> map,
+                                 AtomicLong hits, AtomicLong misses) {
+        FunctionCounter.builder("indostore.cache.requests", hits, AtomicLong::doubleValue)
+                .description("Registry lookups by ID")
+                .tags("cache", cache, "result", "hit")
+                .register(registry);
+        FunctionCounter.builder("indostore.cache.requests", misses, AtomicLong::doubleValue)
+                .description("Registry lookups by ID")
+                .tags("cache", cache, "result", "miss")
+                .register(registry);
+        Gauge.builder("indostore.cache.size", map, LongObjectMap::size)
+                .description("Number of entries held by the cache")
+                .tag("cache", cache)
+                .register(registry);
+    }
+
+    /**
+     * Returns a store, whether it is active or not, loading it if needed.
+     *
+     * @param id The ID of the store.
+     * @return The store projection, or empty when there is no such store.
+     */
+    public Optional<StoreSummary> getStore(long id) {
+        return lookup(stores, id, storeHits, storeMisses, key -> storeRepository.findSummaryById(key).orElse(null));
+    }
+
+    /**
+     * Returns a branch, whether it is active or not, loading it if needed.
+     *
+     * @param id The ID of the branch.
+     * @return The branch projection, or empty when there is no such branch.
+     */
+    public Optional<BranchSummary> getBranch(long id) {
+        return lookup(branches, id, branchHits, branchMisses, key -> {
+            List<BranchSummary> found = branchRepository.findSummariesByIdIn(List.of(key));
+            return found.isEmpty() ? null : found.get(0);
+        });
+    }
+
+    private static <V> Optional<V> lookup(LongObjectMap<V> map, long id, AtomicLong hits, AtomicLong misses,
+                                          LongFunction<V> loader) {
+        V cached = map.get(id);
+        if (cached != null) {
+            hits.incrementAndGet();
+            return Optional.of(cached);
+        }
+        misses.incrementAndGet();
+        long stamp = map.stamp(id);
+        V loaded = loader.apply(id);
+        if (loaded != null) map.putIfUnchanged(id, loaded, stamp);
+        return Optional.ofNullable(loaded);
+    }
+
+    /**
+     * Drops a store once the current transaction commits.
+     *
+     * @param id The ID of the store that changed.
+     */
+    public void storeChanged(long id) {
+        afterCommit(() -> stores.remove(id));
+    }
+
+    /**
+     * Drops a branch, and every store, once the current transaction commits.
+     *
+     * @param id The ID of the branch that changed.
+     */
+    public void branchChanged(long id) {
+        afterCommit(() -> {
+            branches.remove(id);
+            stores.clear();
+        });
+    }
+
+    /** Drops every branch once the current transaction commits. */
+    public void provinceChanged() {
+        afterCommit(branches::clear);
+    }
+
+    /** Drops every store once the current transaction commits. */
+    public void whitelistChanged() {
+        afterCommit(stores::clear);
+    }
+}
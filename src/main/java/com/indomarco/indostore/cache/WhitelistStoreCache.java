@@ -0,0 +1,102 @@
+package com.indomarco.indostore.cache;
+
+import com.indomarco.indostore.dto.StoreSummary;
+import com.indomarco.indostore.repository.WhitelistStoreRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.indomarco.indostore.utility.TransactionUtils.afterCommit;
+
+/**
+ * In-memory cache of the active, not deleted whitelisted stores.
+ *
+ * The list is loaded from the database on first use and kept until a whitelist
+ * entry or a whitelisted store changes, at which point the writing service
+ * calls {@link #invalidate()} and the next read reloads it.
+ *
+ * Hits and misses are published as the {@code indostore.cache.requests} metric
+ * tagged {@code cache=whitelist-stores}.
+ */
+@Component
+public class WhitelistStoreCache {
+    private final WhitelistStoreRepository repo;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    /** Incremented on every invalidation so that a load racing with it is not published. */
+    private final AtomicLong generation = new AtomicLong();
+
+    /** The cached stores, or null when the cache needs to be reloaded. */
+    private volatile List<StoreSummary> stores;
+
+    /**
+     * Constructor for WhitelistStoreCache.
+     *
+     * @param repo The WhitelistStoreRepository used to load the whitelisted stores.
+     * @param registry The MeterRegistry the hit and miss counters are published to.
+     */
+    public WhitelistStoreCache(WhitelistStoreRepository repo, MeterRegistry registry) {
+        this.repo = repo;
+        FunctionCounter.builder("indostore.cache.requests", hits, AtomicLong::doubleValue)
+                .description("Whitelist store cache lookups")
+                .tags("cache", "whitelist-stores", "result", "hit")
+                .register(registry);
+        FunctionCounter.builder("indostore.cache.requests", misses, AtomicLong::doubleValue)
+                .description("Whitelist store cache lookups")
+                .tags("cache", "whitelist-stores", "result", "miss")
+                .register(registry);
+        Gauge.builder("indostore.cache.size", this, cache -> {
+                    List<StoreSummary> current = cache.stores;
+                    return current == null ? 0 : current.size();
+                })
+                .description("Number of entries held by the cache")
+                .tag("cache", "whitelist-stores")
+                .register(registry);
+    }
+
+    /**
+     * Returns the active, not deleted whitelisted stores, loading them if needed.
+     *
+     * @return An unmodifiable list of store projections ordered by ID.
+     */
+    public List<StoreSummary> get() {
+        List<StoreSummary> cached = stores;
+        if (cached != null) {
+            hits.incrementAndGet();
+            return cached;
+        }
+        misses.incrementAndGet();
+        long loadedGeneration = generation.get();
+        List<StoreSummary> loaded = List.copyOf(repo.findAllActiveStores());
+        synchronized (this) {
+            if (generation.get() == loadedGeneration) {
+                stores = loaded;
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Drops the cached list once the current transaction commits, so that the
+     * next read reloads it with the committed changes.
+     */
+    public void invalidate() {
+        afterCommit(() -> {
+            synchronized (this) {
+                generation.incrementAndGet();
+                stores = null;
+            }
+        });
+    }
+
+    /** Returns the number of reads served from the cache. */
+    public long getHits() { return hits.get(); }
+
+    /** Returns the number of reads that had to load from the database. */
+    public long getMisses() { return misses.get(); }
+}
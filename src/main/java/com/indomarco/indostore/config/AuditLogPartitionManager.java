@@ -0,0 +1,269 @@
+package com.indomarco.indostore.config;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Keeps {@code audit_log} partitioned by month on MySQL and enforces its retention.
+ *
+ * The table is partitioned with {@code RANGE COLUMNS(timestamp)}: one partition
+ * {@code pYYYYMM} per month and a {@code p_future} partition catching anything later.
+ * Inserts land in the B-tree of the current month only, and audit queries bounded by
+ * time only read the partitions of their range.
+ *
+ * An unpartitioned table is converted once at startup. MySQL requires every unique key
+ * to contain the partitioning column and does not allow foreign keys on partitioned
+ * tables, so the conversion drops the foreign key to {@code users} and extends the
+ * primary key to (id, timestamp); IDs are still unique, as they come from a sequence.
+ * Converting rebuilds the table, which takes a while when it is large.
+ *
+ * Then, at startup and every {@code indostore.audit.partitions.maintenance-interval}:
+ * <ul>
+ *     <li>partitions are split off {@code p_future} for the months up to
+ *     {@code indostore.audit.partitions.months-ahead} from now;</li>
+ *     <li>the months older than {@code indostore.audit.retention-months} are written
+ *     to {@code indostore.audit.archive-dir} as gzipped NDJSON, one file per month,
+ *     and their partitions dropped, which frees them without deleting row by row.</li>
+ * </ul>
+ *
+ * Does nothing on other databases. Disable it with {@code indostore.audit.partitions.enabled=false}.
+ * Runs after {@link DatasetGenerator}, so that generated audit rows are partitioned by their month.
+ * The generated rows lie in the year before {@code indostore.seed.audit-until} whatever the
+ * current date, so with {@code indostore.seed.enabled=true} retention is not enforced:
+ * partitions are still added, but none is archived or dropped, and the dataset stays the
+ * same from run to run.
+ */
+@Component
+@DependsOn("datasetGenerator")
+public class AuditLogPartitionManager implements InitializingBean, DisposableBean {
+    private static final Logger log = LoggerFactory.getLogger(AuditLogPartitionManager.class);
+    private static final String TABLE = "audit_log";
+    private static final String FUTURE = "p_future";
+    private static final DateTimeFormatter MONTH = DateTimeFormatter.ofPattern("yyyyMM");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final int retentionMonths;
+    private final boolean seeded;
+    private final int monthsAhead;
+    private final Path archiveDir;
+    private final Duration maintenanceInterval;
+    private final ScheduledExecutorService maintainer = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "audit-log-partitions");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Constructor for AuditLogPartitionManager.
+     *
+     * @param entityManagerFactory The EntityManagerFactory; guarantees the schema exists before this bean runs.
+     * @param jdbcTemplate The JdbcTemplate used to manage the partitions and read the expired rows.
+     * @param objectMapper The ObjectMapper used to write the archives.
+     * @param enabled Whether the table is partitioned and maintained.
+     * @param retentionMonths The number of whole months kept in the table besides the current one.
+     * @param seeded Whether the synthetic dataset is in use, in which case retention is not enforced.
+     * @param monthsAhead The number of months after the current one that get a partition in advance.
+     * @param archiveDir The directory the expired months are archived to.
+     * @param maintenanceInterval How often partitions are added and expired.
+     */
+    public AuditLogPartitionManager(EntityManagerFactory entityManagerFactory, JdbcTemplate jdbcTemplate,
+                                    ObjectMapper objectMapper,
+                                    @Value("${indostore.audit.partitions.enabled:true}") boolean enabled,
+                                    @Value("${indostore.audit.retention-months:12}") int retentionMonths,
+                                    @Value("${indostore.seed.enabled:false}") boolean seeded,
+                                    @Value("${indostore.audit.partitions.months-ahead:3}") int monthsAhead,
+                                    @Value("${indostore.audit.archive-dir:audit-archive}") Path archiveDir,
+                                    @Value("${indostore.audit.partitions.maintenance-interval:6h}") Duration maintenanceInterval) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.retentionMonths = retentionMonths;
+        this.seeded = seeded;
+        this.monthsAhead = monthsAhead;
+        this.archiveDir = archiveDir;
+        this.maintenanceInterval = maintenanceInterval;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        if (!enabled || !isMySql()) return;
+        if (partitionNames().isEmpty()) partitionTable();
+        if (seeded) log.info("Synthetic dataset in use, not enforcing the audit log retention");
+        maintain();
+        long interval = maintenanceInterval.toMillis();
+        maintainer.scheduleWithFixedDelay(() -> {
+            try {
+                maintain();
+            } catch (Exception e) {
+                log.error("Audit log partition maintenance failed", e);
+            }
+        }, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Adds the partitions of the coming months and archives and drops the expired ones,
+     * unless the synthetic dataset is in use.
+     */
+    public synchronized void maintain() {
+        YearMonth current = YearMonth.now();
+        addPartitionsUntil(current.plusMonths(monthsAhead));
+        if (seeded) return;
+        YearMonth oldestKept = current.minusMonths(retentionMonths);
+        for (String partition : partitionNames()) {
+            if (FUTURE.equals(partition)) continue;
+            YearMonth month = YearMonth.parse(partition.substring(1), MONTH);
+            if (month.isBefore(oldestKept)) {
+                archive(partition, month);
+                jdbcTemplate.execute("ALTER TABLE " + TABLE + " DROP PARTITION " + partition);
+                log.info("Dropped audit log partition {} after archiving it", partition);
+            }
+        }
+    }
+
+    private void partitionTable() {
+        long start = System.nanoTime();
+        List<String> foreignKeys = jdbcTemplate.queryForList(
+                "SELECT CONSTRAINT_NAME FROM information_schema.TABLE_CONSTRAINTS "
+                        + "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND CONSTRAINT_TYPE = 'FOREIGN KEY'",
+                String.class, TABLE);
+        for (String foreignKey : foreignKeys) {
+            jdbcTemplate.execute("ALTER TABLE " + TABLE + " DROP FOREIGN KEY `" + foreignKey + "`");
+        }
+        jdbcTemplate.update("UPDATE " + TABLE + " SET `timestamp` = '1970-01-01' WHERE `timestamp` IS NULL");
+        jdbcTemplate.execute("ALTER TABLE " + TABLE + " MODIFY `timestamp` DATETIME(6) NOT NULL, "
+                + "DROP PRIMARY KEY, ADD PRIMARY KEY (id, `timestamp`)");
+
+        Timestamp oldest = jdbcTemplate.queryForObject("SELECT MIN(`timestamp`) FROM " + TABLE, Timestamp.class);
+        YearMonth first = oldest == null ? YearMonth.now() : YearMonth.from(oldest.toLocalDateTime());
+        List<String> definitions = new ArrayList<>();
+        for (YearMonth month = first; !month.isAfter(YearMonth.now()); month = month.plusMonths(1)) {
+            definitions.add(definition(month));
+        }
+        definitions.add("PARTITION " + FUTURE + " VALUES LESS THAN (MAXVALUE)");
+        jdbcTemplate.execute("ALTER TABLE " + TABLE + " PARTITION BY RANGE COLUMNS(`timestamp`) ("
+                + String.join(", ", definitions) + ")");
+        log.info("Partitioned {} by month from {} in {} ms", TABLE, first, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private void addPartitionsUntil(YearMonth last) {
+        YearMonth latest = null;
+        for (String partition : partitionNames()) {
+            if (!FUTURE.equals(partition)) latest = YearMonth.parse(partition.substring(1), MONTH);
+        }
+        YearMonth next = latest == null ? YearMonth.now() : latest.plusMonths(1);
+        List<String> definitions = new ArrayList<>();
+        for (YearMonth month = next; !month.isAfter(last); month = month.plusMonths(1)) {
+            definitions.add(definition(month));
+        }
+        if (definitions.isEmpty()) return;
+        definitions.add("PARTITION " + FUTURE + " VALUES LESS THAN (MAXVALUE)");
+        // p_future only holds rows timestamped after the last month, so splitting it moves next to nothing
+        jdbcTemplate.execute("ALTER TABLE " + TABLE + " REORGANIZE PARTITION " + FUTURE + " INTO ("
+                + String.join(", ", definitions) + ")");
+        log.info("Added audit log partitions from {} to {}", next, last);
+    }
+
+    private void archive(String partition, YearMonth month) {
+        Path target = archiveDir.resolve(TABLE + "-" + month.format(MONTH) + ".ndjson.gz");
+        Path partial = archiveDir.resolve(target.getFileName() + ".part");
+        long[] rows = {0};
+        try {
+            Files.createDirectories(archiveDir);
+            try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(partial));
+                 JsonGenerator json = objectMapper.getFactory().createGenerator(out)) {
+                json.setRootValueSeparator(null);
+                jdbcTemplate.query(connection -> {
+                    PreparedStatement statement = connection.prepareStatement(
+                            "SELECT id, table_name, record_id, action, `timestamp`, old_value, new_value, user_id "
+                                    + "FROM " + TABLE + " PARTITION (" + partition + ") ORDER BY id");
+                    statement.setFetchSize(1000);
+                    return statement;
+                }, rs -> {
+                    try {
+                        json.writeStartObject();
+                        json.writeNumberField("id", rs.getLong("id"));
+                        json.writeStringField("tableName", rs.getString("table_name"));
+                        long recordId = rs.getLong("record_id");
+                        if (rs.wasNull()) json.writeNullField("recordId");
+                        else json.writeNumberField("recordId", recordId);
+                        json.writeStringField("action", rs.getString("action"));
+                        json.writeStringField("timestamp", rs.getTimestamp("timestamp").toLocalDateTime().toString());
+                        json.writeStringField("oldValue", rs.getString("old_value"));
+                        json.writeStringField("newValue", rs.getString("new_value"));
+                        json.writeNumberField("userId", rs.getLong("user_id"));
+                        json.writeEndObject();
+                        json.writeRaw('\n');
+                        rows[0]++;
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+            // Only a complete archive takes the final name, so a partition is never dropped on a partial copy
+            Files.move(partial, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not archive audit log partition " + partition, e);
+        }
+        log.info("Archived {} audit log entries of {} to {}", rows[0], month, target);
+    }
+
+    private List<String> partitionNames() {
+        return jdbcTemplate.queryForList(
+                "SELECT PARTITION_NAME FROM information_schema.PARTITIONS "
+                        + "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND PARTITION_NAME IS NOT NULL "
+                        + "ORDER BY PARTITION_ORDINAL_POSITION",
+                String.class, TABLE);
+    }
+
+    private static String definition(YearMonth month) {
+        LocalDate end = month.plusMonths(1).atDay(1);
+        return "PARTITION p" + month.format(MONTH) + " VALUES LESS THAN ('" + end + "')";
+    }
+
+    private boolean isMySql() {
+        try {
+            String product = JdbcUtils.extractDatabaseMetaData(
+                    jdbcTemplate.getDataSource(), DatabaseMetaData::getDatabaseProductName);
+            return product.contains("MySQL");
+        } catch (Exception e) {
+            throw new IllegalStateException("Could not determine the database product", e);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        maintainer.shutdownNow();
+    }
+}
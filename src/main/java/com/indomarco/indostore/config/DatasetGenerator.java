@@ -0,0 +1,262 @@
+package com.indomarco.indostore.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.SplittableRandom;
+
+/**
+ * Fills an empty database with a synthetic dataset for performance testing.
+ *
+ * Enabled with {@code indostore.seed.enabled=true}, as in the {@code h2} profile. Inserts
+ * the configured number of provinces, branches, stores, whitelist entries, users and audit
+ * log rows with plain JDBC batches of {@code indostore.seed.batch-size}, which the MySQL
+ * driver rewrites into multi-row inserts. The database is left alone when it already
+ * holds provinces.
+ *
+ * The data only depends on the configured scale and {@code indostore.seed.random-seed}:
+ * IDs are assigned explicitly from 1, every table draws from its own random sequence, and
+ * audit timestamps are spread over the year before {@code indostore.seed.audit-until}
+ * rather than relative to the current time. Every run with the same settings, on H2 or
+ * MySQL, produces the same rows. User {@code n} logs in as {@code user<n>@indostore.test}
+ * with password {@code password}; users have no token until they log in, so that no
+ * token can be derived from the seed.
+ *
+ * Since the audit timestamps do not follow the current date, {@link AuditLogPartitionManager}
+ * does not enforce the audit retention while seeding is enabled; otherwise it would archive
+ * and drop a growing share of them as time passes.
+ *
+ * Runs once the schema has been updated and before the application accepts requests, then
+ * moves the ID sequences past the inserted IDs with {@link IdSequenceInitializer}.
+ */
+@Component
+public class DatasetGenerator implements InitializingBean {
+    private static final Logger log = LoggerFactory.getLogger(DatasetGenerator.class);
+
+    private static final String[] PROVINCES = {
+            "Aceh", "Sumatera Utara", "Sumatera Barat", "Riau", "Kepulauan Riau", "Jambi",
+            "Sumatera Selatan", "Kepulauan Bangka Belitung", "Bengkulu", "Lampung", "DKI Jakarta",
+            "Jawa Barat", "Banten", "Jawa Tengah", "DI Yogyakarta", "Jawa Timur", "Bali",
+            "Nusa Tenggara Barat", "Nusa Tenggara Timur", "Kalimantan Barat", "Kalimantan Tengah",
+            "Kalimantan Selatan", "Kalimantan Timur", "Kalimantan Utara", "Sulawesi Utara",
+            "Gorontalo", "Sulawesi Tengah", "Sulawesi Barat", "Sulawesi Selatan", "Sulawesi Tenggara",
+            "Maluku", "Maluku Utara", "Papua", "Papua Barat", "Papua Barat Daya", "Papua Tengah",
+            "Papua Pegunungan", "Papua Selatan"
+    };
+    private static final String[] NAME_WORDS = {
+            "Maju", "Jaya", "Makmur", "Sentosa", "Abadi", "Berkah", "Mitra", "Sejahtera",
+            "Sumber", "Rezeki", "Mandiri", "Lestari", "Karya", "Bersama", "Indah", "Baru"
+    };
+    private static final String[] STREETS = {
+            "Sudirman", "Thamrin", "Diponegoro", "Gatot Subroto", "Ahmad Yani", "Pahlawan",
+            "Merdeka", "Veteran", "Gajah Mada", "Hayam Wuruk", "Imam Bonjol", "Pemuda"
+    };
+    private static final String[] AUDITED_TABLES = {"stores", "stores", "stores", "branches", "provinces"};
+    private static final String[] ACTIONS = {"UPDATE", "UPDATE", "UPDATE", "CREATE", "DELETE"};
+
+    private final JdbcTemplate jdbcTemplate;
+    private final IdSequenceInitializer idSequenceInitializer;
+    private final boolean enabled;
+    private final long seed;
+    private final int batchSize;
+    private final int provinces;
+    private final int branches;
+    private final int stores;
+    private final int whitelistStores;
+    private final int users;
+    private final long auditRows;
+    private final LocalDateTime auditUntil;
+
+    /**
+     * Constructor for DatasetGenerator.
+     *
+     * @param entityManagerFactory The EntityManagerFactory; guarantees the schema exists before this bean runs.
+     * @param jdbcTemplate The JdbcTemplate the rows are inserted with.
+     * @param idSequenceInitializer Moves the ID sequences past the inserted IDs.
+     * @param enabled Whether an empty database is filled at startup.
+     * @param seed The seed every random choice derives from.
+     * @param batchSize The number of rows sent per JDBC batch.
+     * @param provinces The number of provinces.
+     * @param branches The number of branches, spread over the provinces.
+     * @param stores The number of stores, spread over the branches.
+     * @param whitelistStores The number of whitelisted stores.
+     * @param users The number of users.
+     * @param auditRows The number of audit log rows.
+     * @param auditUntil The end of the year the audit timestamps are spread over, in ISO format.
+     */
+    public DatasetGenerator(EntityManagerFactory entityManagerFactory, JdbcTemplate jdbcTemplate,
+                            IdSequenceInitializer idSequenceInitializer,
+                            @Value("${indostore.seed.enabled:false}") boolean enabled,
+                            @Value("${indostore.seed.random-seed:42}") long seed,
+                            @Value("${indostore.seed.batch-size:5000}") int batchSize,
+                            @Value("${indostore.seed.provinces:38}") int provinces,
+                            @Value("${indostore.seed.branches:2000}") int branches,
+                            @Value("${indostore.seed.stores:1000000}") int stores,
+                            @Value("${indostore.seed.whitelist-stores:1000}") int whitelistStores,
+                            @Value("${indostore.seed.users:100}") int users,
+                            @Value("${indostore.seed.audit-rows:10000000}") long auditRows,
+                            @Value("${indostore.seed.audit-until:2026-01-01T00:00:00}") String auditUntil) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.idSequenceInitializer = idSequenceInitializer;
+        this.enabled = enabled;
+        this.seed = seed;
+        this.batchSize = batchSize;
+        this.provinces = provinces;
+        this.branches = branches;
+        this.stores = stores;
+        this.whitelistStores = whitelistStores;
+        this.users = users;
+        this.auditRows = auditRows;
+        this.auditUntil = LocalDateTime.parse(auditUntil);
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        if (!enabled) return;
+        Long existing = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM provinces", Long.class);
+        if (existing != null && existing > 0) {
+            log.info("Database already holds {} provinces, not generating the dataset", existing);
+            return;
+        }
+        if (whitelistStores > stores) {
+            throw new IllegalStateException("Cannot whitelist " + whitelistStores + " of " + stores + " stores");
+        }
+        generate();
+        idSequenceInitializer.synchronize();
+    }
+
+    /**
+     * Inserts the whole dataset, table by table.
+     */
+    public void generate() {
+        SplittableRandom provinceRandom = new SplittableRandom(seed);
+        insert("provinces", "INSERT INTO provinces (id, name, is_active, is_deleted, version) VALUES (?, ?, ?, ?, 0)",
+                provinces, (ps, id) -> {
+                    ps.setLong(1, id);
+                    ps.setString(2, id <= PROVINCES.length ? PROVINCES[(int) id - 1] : "Provinsi " + id);
+                    ps.setBoolean(3, provinceRandom.nextInt(50) != 0);
+                    ps.setBoolean(4, false);
+                });
+
+        SplittableRandom branchRandom = new SplittableRandom(seed + 1);
+        insert("branches", "INSERT INTO branches (id, name, is_active, is_deleted, version, province_id) "
+                + "VALUES (?, ?, ?, ?, 0, ?)", branches, (ps, id) -> {
+            // Every province gets a branch before any gets a second one
+            long provinceId = id <= provinces ? id : 1 + branchRandom.nextInt(provinces);
+            ps.setLong(1, id);
+            ps.setString(2, "Cabang " + word(branchRandom) + " " + id);
+            ps.setBoolean(3, branchRandom.nextInt(50) != 0);
+            ps.setBoolean(4, branchRandom.nextInt(100) == 0);
+            ps.setLong(5, provinceId);
+        });
+
+        SplittableRandom storeRandom = new SplittableRandom(seed + 2);
+        insert("stores", "INSERT INTO stores (id, name, address, is_active, is_deleted, version, branch_id) "
+                + "VALUES (?, ?, ?, ?, ?, 0, ?)", stores, (ps, id) -> {
+            ps.setLong(1, id);
+            ps.setString(2, "Toko " + word(storeRandom) + " " + word(storeRandom) + " " + id);
+            ps.setString(3, "Jl. " + STREETS[storeRandom.nextInt(STREETS.length)] + " No. " + (1 + storeRandom.nextInt(300)));
+            ps.setBoolean(4, storeRandom.nextInt(20) != 0);
+            ps.setBoolean(5, storeRandom.nextInt(50) == 0);
+            ps.setLong(6, id <= branches ? id : 1 + storeRandom.nextInt(branches));
+        });
+
+        // Evenly spaced, so that the whitelisted stores are distinct
+        long stride = whitelistStores == 0 ? 1 : stores / whitelistStores;
+        insert("whitelist_stores", "INSERT INTO whitelist_stores (id, store_id) VALUES (?, ?)",
+                whitelistStores, (ps, id) -> {
+                    ps.setLong(1, id);
+                    ps.setLong(2, id * stride);
+                });
+
+        insert("users", "INSERT INTO users (id, email, name, password, token) VALUES (?, ?, ?, ?, ?)",
+                users, (ps, id) -> {
+                    ps.setLong(1, id);
+                    ps.setString(2, "user" + id + "@indostore.test");
+                    ps.setString(3, "User " + id);
+                    ps.setString(4, "password");
+                    ps.setNull(5, Types.VARCHAR);
+                });
+
+        SplittableRandom auditRandom = new SplittableRandom(seed + 4);
+        LocalDateTime auditFrom = auditUntil.minusYears(1);
+        long spanMicros = Duration.between(auditFrom, auditUntil).toNanos() / 1000;
+        insert("audit_log", "INSERT INTO audit_log (id, table_name, record_id, action, timestamp, old_value, new_value, user_id) "
+                + "VALUES (?, ?, ?, ?, ?, ?, ?, ?)", auditRows, (ps, id) -> {
+            String table = AUDITED_TABLES[auditRandom.nextInt(AUDITED_TABLES.length)];
+            int records = switch (table) {
+                case "stores" -> stores;
+                case "branches" -> branches;
+                default -> provinces;
+            };
+            String action = ACTIONS[auditRandom.nextInt(ACTIONS.length)];
+            // IDs follow time, as they do when entries are written as they happen
+            long offset = (long) ((double) (id - 1) / Math.max(auditRows, 1) * spanMicros) + auditRandom.nextInt(1000);
+            boolean active = auditRandom.nextBoolean();
+            ps.setLong(1, id);
+            ps.setString(2, table);
+            ps.setLong(3, 1 + auditRandom.nextInt(Math.max(records, 1)));
+            ps.setString(4, action);
+            ps.setTimestamp(5, Timestamp.valueOf(auditFrom.plusNanos(offset * 1000)));
+            switch (action) {
+                case "CREATE" -> {
+                    ps.setNull(6, Types.VARCHAR);
+                    ps.setString(7, "{\"name\":\"" + word(auditRandom) + "\",\"isActive\":true,\"isDeleted\":false}");
+                }
+                case "DELETE" -> {
+                    ps.setString(6, "{\"isDeleted\":false}");
+                    ps.setString(7, "{\"isDeleted\":true}");
+                }
+                default -> {
+                    ps.setString(6, "{\"isActive\":" + active + "}");
+                    ps.setString(7, "{\"isActive\":" + !active + "}");
+                }
+            }
+            ps.setLong(8, 1 + auditRandom.nextInt(Math.max(users, 1)));
+        });
+    }
+
+    private static String word(SplittableRandom random) {
+        return NAME_WORDS[random.nextInt(NAME_WORDS.length)];
+    }
+
+    @FunctionalInterface
+    private interface RowWriter {
+        void write(PreparedStatement ps, long id) throws SQLException;
+    }
+
+    private void insert(String table, String sql, long rows, RowWriter writer) {
+        long start = System.nanoTime();
+        long done = 0;
+        while (done < rows) {
+            int chunk = (int) Math.min(batchSize, rows - done);
+            long firstId = done + 1;
+            jdbcTemplate.batchUpdate(sql, new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    writer.write(ps, firstId + i);
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return chunk;
+                }
+            });
+            done += chunk;
+        }
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        log.info("Generated {} rows in {} in {} ms", rows, table, millis);
+    }
+}
@@ -0,0 +1,108 @@
+package com.indomarco.indostore.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import jakarta.persistence.metamodel.EntityType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Field;
+import java.sql.DatabaseMetaData;
+import java.util.List;
+
+/**
+ * Moves the ID sequences of the entities past the IDs already stored in their tables.
+ *
+ * Entities draw their IDs from pooled sequences (emulated with {@code <table>_seq}
+ * tables on MySQL) so that Hibernate can batch inserts. Tables created while IDs were
+ * still generated with {@code IDENTITY}, or filled by bulk loaders that assign IDs
+ * themselves, would otherwise hand out IDs that are already taken.
+ *
+ * Runs once the schema has been updated and before the application accepts requests.
+ * A sequence is only ever moved forward.
+ */
+@Component
+public class IdSequenceInitializer implements InitializingBean {
+    private static final Logger log = LoggerFactory.getLogger(IdSequenceInitializer.class);
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Constructor for IdSequenceInitializer.
+     *
+     * @param entityManagerFactory The EntityManagerFactory whose entities are checked; also
+     *                             guarantees the schema exists before this bean runs.
+     * @param jdbcTemplate The JdbcTemplate used to read and move the sequences.
+     */
+    public IdSequenceInitializer(EntityManagerFactory entityManagerFactory, JdbcTemplate jdbcTemplate) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        synchronize();
+    }
+
+    /**
+     * Moves every entity sequence past the highest ID of its table.
+     */
+    public void synchronize() {
+        boolean tableSequences = usesSequenceTables();
+        for (EntityType<?> entity : entityManagerFactory.getMetamodel().getEntities()) {
+            Class<?> type = entity.getJavaType();
+            Table table = type.getAnnotation(Table.class);
+            SequenceGenerator generator = findSequenceGenerator(type);
+            if (table == null || generator == null) continue;
+            synchronize(table.name(), generator.sequenceName(), generator.allocationSize(), tableSequences);
+        }
+    }
+
+    private void synchronize(String table, String sequence, int allocationSize, boolean tableSequence) {
+        Long maxId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM " + table, Long.class);
+        if (maxId == null) return;
+
+        // The pooled optimizer hands out the block ending at the value it reads, so the
+        // stored value must leave a whole block above the highest existing ID.
+        long target = maxId + allocationSize;
+        if (tableSequence) {
+            int moved = jdbcTemplate.update(
+                    "UPDATE " + sequence + " SET next_val = ? WHERE next_val < ?", target, target);
+            if (moved > 0) log.info("Moved {} to {} past existing IDs of {}", sequence, target, table);
+        } else {
+            List<Long> current = jdbcTemplate.queryForList(
+                    "SELECT BASE_VALUE FROM INFORMATION_SCHEMA.SEQUENCES WHERE LOWER(SEQUENCE_NAME) = ?",
+                    Long.class, sequence.toLowerCase());
+            if (!current.isEmpty() && current.get(0) < target) {
+                jdbcTemplate.execute("ALTER SEQUENCE " + sequence + " RESTART WITH " + target);
+                log.info("Moved {} to {} past existing IDs of {}", sequence, target, table);
+            }
+        }
+    }
+
+    private boolean usesSequenceTables() {
+        try {
+            String product = JdbcUtils.extractDatabaseMetaData(
+                    jdbcTemplate.getDataSource(), DatabaseMetaData::getDatabaseProductName);
+            return product.contains("MySQL");
+        } catch (Exception e) {
+            throw new IllegalStateException("Could not determine the database product", e);
+        }
+    }
+
+    private static SequenceGenerator findSequenceGenerator(Class<?> type) {
+        for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+            for (Field field : c.getDeclaredFields()) {
+                SequenceGenerator generator = field.getAnnotation(SequenceGenerator.class);
+                if (generator != null) return generator;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,123 @@
+package com.indomarco.indostore.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.metamodel.EntityType;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Fails startup when an index declared on an entity with {@code @Table(indexes = ...)}
+ * is missing from the database.
+ *
+ * The repositories filter on the active/deleted flags, foreign keys, tokens and audit
+ * record keys; without these indexes every such query scans its whole table. An index
+ * counts as present when the table has any index starting with the declared columns in
+ * the declared order, whatever its name.
+ *
+ * Runs once the schema has been updated and before the application accepts requests.
+ * Disable it with {@code indostore.schema.verify-indexes=false}.
+ */
+@Component
+public class SchemaIndexVerifier implements InitializingBean {
+    private final EntityManagerFactory entityManagerFactory;
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+
+    /**
+     * Constructor for SchemaIndexVerifier.
+     *
+     * @param entityManagerFactory The EntityManagerFactory whose entities are checked; also
+     *                             guarantees the schema exists before this bean runs.
+     * @param jdbcTemplate The JdbcTemplate used to read the database metadata.
+     * @param enabled Whether the check runs at startup.
+     */
+    public SchemaIndexVerifier(EntityManagerFactory entityManagerFactory, JdbcTemplate jdbcTemplate,
+                               @Value("${indostore.schema.verify-indexes:true}") boolean enabled) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        if (!enabled) return;
+        List<String> missing = findMissingIndexes();
+        if (!missing.isEmpty()) {
+            throw new IllegalStateException("Missing database indexes: " + String.join(", ", missing)
+                    + ". Create them or start with indostore.schema.verify-indexes=false.");
+        }
+    }
+
+    /**
+     * Returns the declared indexes that do not exist in the database.
+     *
+     * @return The missing indexes as {@code table.index(columns)}.
+     */
+    public List<String> findMissingIndexes() {
+        return jdbcTemplate.execute((Connection connection) -> {
+            DatabaseMetaData metaData = connection.getMetaData();
+            List<String> missing = new ArrayList<>();
+            for (EntityType<?> entity : entityManagerFactory.getMetamodel().getEntities()) {
+                Table table = entity.getJavaType().getAnnotation(Table.class);
+                if (table == null || table.indexes().length == 0) continue;
+
+                List<List<String>> existing = readIndexes(metaData, connection, table.name());
+                for (Index index : table.indexes()) {
+                    List<String> columns = columnsOf(index);
+                    boolean present = existing.stream().anyMatch(candidate ->
+                            candidate.size() >= columns.size()
+                                    && candidate.subList(0, columns.size()).equals(columns));
+                    if (!present) missing.add(table.name() + "." + index.name() + "(" + index.columnList() + ")");
+                }
+            }
+            return missing;
+        });
+    }
+
+    private static List<String> columnsOf(Index index) {
+        return Arrays.stream(index.columnList().split(","))
+                .map(column -> column.strip().split("\\s+")[0].toLowerCase(Locale.ROOT))
+                .toList();
+    }
+
+    private static List<List<String>> readIndexes(DatabaseMetaData metaData, Connection connection, String table)
+            throws SQLException {
+        // Identifier case depends on the database, so try the name as declared and folded both ways
+        Set<String> names = new LinkedHashSet<>(List.of(
+                table, table.toUpperCase(Locale.ROOT), table.toLowerCase(Locale.ROOT)));
+        for (String name : names) {
+            Map<String, TreeMap<Short, String>> indexes = new HashMap<>();
+            try (ResultSet rs = metaData.getIndexInfo(connection.getCatalog(), connection.getSchema(), name, false, true)) {
+                while (rs.next()) {
+                    String indexName = rs.getString("INDEX_NAME");
+                    String column = rs.getString("COLUMN_NAME");
+                    if (indexName == null || column == null) continue;
+                    indexes.computeIfAbsent(indexName, k -> new TreeMap<>())
+                            .put(rs.getShort("ORDINAL_POSITION"), column.toLowerCase(Locale.ROOT));
+                }
+            }
+            if (!indexes.isEmpty()) {
+                return indexes.values().stream().map(columns -> List.copyOf(columns.values())).toList();
+            }
+        }
+        return List.of();
+    }
+}
@@ -0,0 +1,66 @@
+package com.indomarco.indostore.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Component;
+
+import java.util.function.ToLongFunction;
+
+/**
+ * Publishes the hits and misses of every Hibernate second-level cache region.
+ *
+ * Each region, including the query cache, gets the {@code indostore.cache.requests}
+ * counters tagged {@code result=hit} and {@code result=miss}, like the application caches,
+ * and an {@code indostore.cache.hit.ratio} gauge. The {@code cache} tag holds the region
+ * name set in {@code @Cache(region = ...)}. Relies on
+ * {@code hibernate.generate_statistics} being enabled.
+ */
+@Component
+public class SecondLevelCacheMetrics implements MeterBinder {
+    private final Statistics statistics;
+
+    /**
+     * Constructor for SecondLevelCacheMetrics.
+     *
+     * @param entityManagerFactory The EntityManagerFactory whose statistics are published.
+     */
+    public SecondLevelCacheMetrics(EntityManagerFactory entityManagerFactory) {
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (String region : statistics.getSecondLevelCacheRegionNames()) {
+            counter(registry, region, "hit", CacheRegionStatistics::getHitCount);
+            counter(registry, region, "miss", CacheRegionStatistics::getMissCount);
+            Gauge.builder("indostore.cache.hit.ratio", statistics, stats -> hitRatio(stats.getCacheRegionStatistics(region)))
+                    .description("Share of second-level cache lookups answered from the region")
+                    .tag("cache", region)
+                    .register(registry);
+        }
+    }
+
+    private void counter(MeterRegistry registry, String region, String result,
+                         ToLongFunction<CacheRegionStatistics> count) {
+        FunctionCounter.builder("indostore.cache.requests", statistics, stats -> {
+                    CacheRegionStatistics regionStatistics = stats.getCacheRegionStatistics(region);
+                    return regionStatistics == null ? 0 : count.applyAsLong(regionStatistics);
+                })
+                .description("Second-level cache lookups")
+                .tags("cache", region, "result", result)
+                .register(registry);
+    }
+
+    private static double hitRatio(CacheRegionStatistics regionStatistics) {
+        if (regionStatistics == null) return Double.NaN;
+        long hits = regionStatistics.getHitCount();
+        long lookups = hits + regionStatistics.getMissCount();
+        return lookups == 0 ? Double.NaN : (double) hits / lookups;
+    }
+}
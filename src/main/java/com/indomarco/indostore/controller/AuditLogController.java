@@ -0,0 +1,103 @@
+package com.indomarco.indostore.controller;
+
+import com.indomarco.indostore.dto.AuditLogEntry;
+import com.indomarco.indostore.entity.User;
+import com.indomarco.indostore.service.AuditLogService;
+import com.indomarco.indostore.service.UserService;
+import com.indomarco.indostore.utility.CursorPage;
+
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import jakarta.servlet.http.HttpServletRequest;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static com.indomarco.indostore.utility.PaginationUtils.cursorInfo;
+
+/**
+ * Controller for reading the audit log.
+ *
+ * Provides an endpoint listing the audit log entries of a record, of a user or of a time range.
+ * All endpoints require authentication via the Authorization header.
+ */
+@RestController
+@RequestMapping("/api/audit-logs")
+public class AuditLogController {
+
+    private final AuditLogService auditLogService;
+    private final UserService userService;
+
+    /**
+     * Constructor for AuditLogController.
+     *
+     * @param auditLogService Service for reading audit log entries.
+     * @param userService Service for handling user authentication and token validation.
+     */
+    public AuditLogController(AuditLogService auditLogService, UserService userService) {
+        this.auditLogService = auditLogService;
+        this.userService = userService;
+    }
+
+    /**
+     * Helper method to retrieve the authenticated user from the Authorization header.
+     *
+     * @param req The HTTP request containing the Authorization header.
+     * @return Authenticated User object.
+     */
+    private User getUser(HttpServletRequest req) {
+        String token = req.getHeader("Authorization");
+
+        if (token == null || token.isBlank()) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Missing Authorization header");
+        }
+
+        return userService.findByToken(token);
+    }
+
+    /**
+     * Retrieve audit log entries, newest first, with keyset pagination.
+     *
+     * Filter by record with {@code table} and {@code recordId}, or by {@code userId}, and
+     * optionally by time with {@code from} and {@code to}. The response carries the
+     * {@code nextCursor} to pass as {@code cursor} for the following page.
+     *
+     * @param table Table of the record, e.g. {@code stores} (optional, requires recordId).
+     * @param recordId ID of the record (optional, requires table).
+     * @param userId ID of the user who performed the actions (optional).
+     * @param from Earliest timestamp, inclusive, in ISO format (optional).
+     * @param to Latest timestamp, exclusive, in ISO format (optional).
+     * @param cursor Opaque cursor returned as {@code nextCursor} by the previous page (optional).
+     * @param size Page size (default 50, at most 500).
+     * @param req The HTTP request containing the Authorization header.
+     * @return ResponseEntity containing the audit log entries and pagination info.
+     */
+    @GetMapping
+    public ResponseEntity<?> all(
+            @RequestParam(required = false) String table,
+            @RequestParam(required = false) Long recordId,
+            @RequestParam(required = false) Long userId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size,
+            HttpServletRequest req) {
+        try {
+            getUser(req);
+            CursorPage<AuditLogEntry> entries = auditLogService.find(table, recordId, userId, from, to, cursor, size);
+            return ResponseEntity.ok(Map.of(
+                    "message", "Audit logs fetched successfully",
+                    "data", entries.content(),
+                    "pagination", cursorInfo(entries)
+            ));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of(
+                    "message", "Failed to fetch audit logs",
+                    "error", e.getMessage()
+            ));
+        }
+    }
+}
@@ -1,20 +1,28 @@
 package com.indomarco.indostore.controller;
 
+import com.indomarco.indostore.dto.BranchSummary;
 import com.indomarco.indostore.entity.Branch;
 import com.indomarco.indostore.entity.User;
 import com.indomarco.indostore.service.BranchService;
 import com.indomarco.indostore.service.UserService;
+import com.indomarco.indostore.utility.CursorPage;
+import com.indomarco.indostore.utility.FieldSelection;
 
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Page;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.server.ResponseStatusException;
 
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
-import java.util.List;
 import java.util.Map;
 
+import static com.indomarco.indostore.utility.PaginationUtils.cursorInfo;
+import static com.indomarco.indostore.utility.PaginationUtils.pageInfo;
+
 /**
  * REST controller for managing Branch entities.
  * Provides endpoints to create, read, update, and delete branches.
@@ -80,22 +88,49 @@ public class BranchController {
     /**
      * Get all active branches with pagination.
      *
+     * When {@code afterId} is given, keyset pagination is used instead of {@code page}:
+     * the listing seeks past the cursor and the response carries the {@code nextCursor}
+     * to pass as {@code afterId} for the following page. An empty {@code afterId} starts
+     * from the first branch.
+     *
+     * Responses carry an ETag; a request whose {@code If-None-Match} matches it is answered
+     * with 304 Not Modified without reading the branches.
+     *
      * @param page Page number (default 0)
-     * @param size Page size (default 50)
+     * @param size Page size (default 50, at most 500).
+     * @param afterId Opaque cursor returned as {@code nextCursor} by the previous page (optional)
+     * @param fields Comma-separated branch fields to return (optional, default all)
+     * @param expand Comma-separated associations to embed, at most {@code indostore.expand.max-rows} stores each: {@code province}, {@code stores} (optional)
      * @param req HTTP request for user authentication.
-     * @return ResponseEntity containing a list of branches or error message.
+     * @param webRequest The request, used to check {@code If-None-Match} and to set the ETag.
+     * @return ResponseEntity containing a list of branches or error message, or nothing when not modified.
      */
     @GetMapping
     public ResponseEntity<?> all(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "50") int size,
-            HttpServletRequest req) {
+            @RequestParam(required = false) String afterId,
+            @RequestParam(required = false) String fields,
+            @RequestParam(required = false) String expand,
+            HttpServletRequest req,
+            WebRequest webRequest) {
         try {
             getUser(req);
-            List<Branch> branches = branchService.all(page, size);
+            FieldSelection selection = FieldSelection.parse(fields, expand, BranchSummary.class, BranchService.EXPANSIONS);
+            if (webRequest.checkNotModified(branchService.listingTag())) return null;
+            if (afterId != null) {
+                CursorPage<BranchSummary> branches = branchService.after(afterId, size);
+                return ResponseEntity.ok(Map.of(
+                        "message", "Branches fetched successfully",
+                        "data", branchService.shape(branches.content(), selection),
+                        "pagination", cursorInfo(branches)
+                ));
+            }
+            Page<BranchSummary> branches = branchService.all(page, size);
             return ResponseEntity.ok(Map.of(
                     "message", "Branches fetched successfully",
-                    "data", branches
+                    "data", branchService.shape(branches.getContent(), selection),
+                    "pagination", pageInfo(branches)
             ));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of(
@@ -116,7 +151,7 @@ public class BranchController {
     public ResponseEntity<?> get(@PathVariable Long id, HttpServletRequest req) {
         try {
             getUser(req);
-            Branch branch = branchService.get(id);
+            BranchSummary branch = branchService.getSummary(id);
             return ResponseEntity.ok(Map.of(
                     "message", "Branch fetched successfully",
                     "data", branch
@@ -132,6 +167,9 @@ public class BranchController {
     /**
      * Update an existing branch.
      *
+     * Send the {@code version} of the branch as last read to have the update refused with
+     * 409 Conflict when someone else changed the branch in the meantime.
+     *
      * @param id Branch ID
      * @param branch Branch object with updated data.
      * @param req HTTP request for user authentication.
@@ -145,6 +183,11 @@ public class BranchController {
                     "message", "Branch updated successfully",
                     "data", updated
             ));
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of(
+                    "message", "Failed to update branch",
+                    "error", "Branch was changed by another user, reload it and try again"
+            ));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of(
                     "message", "Failed to update branch",
@@ -167,6 +210,11 @@ public class BranchController {
             return ResponseEntity.ok(Map.of(
                     "message", "Branch deleted successfully"
             ));
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of(
+                    "message", "Failed to delete branch",
+                    "error", "Branch was changed by another user, reload it and try again"
+            ));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of(
                     "message", "Failed to delete branch",
@@ -1,20 +1,26 @@
 package com.indomarco.indostore.controller;
 
+import com.indomarco.indostore.dto.ProvinceSummary;
 import com.indomarco.indostore.entity.Province;
 import com.indomarco.indostore.entity.User;
 import com.indomarco.indostore.service.ProvinceService;
 import com.indomarco.indostore.service.UserService;
+import com.indomarco.indostore.utility.FieldSelection;
 
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Page;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.server.ResponseStatusException;
 
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
-import java.util.List;
 import java.util.Map;
 
+import static com.indomarco.indostore.utility.PaginationUtils.pageInfo;
+
 /**
  * Controller for managing Provinces and retrieving Stores by Province.
  * 
@@ -82,22 +88,34 @@ public class ProvinceController {
     /**
      * Fetch all active provinces with pagination.
      *
+     * Responses carry an ETag; a request whose {@code If-None-Match} matches it is answered
+     * with 304 Not Modified without reading the provinces.
+     *
      * @param page Page index (default 0).
-     * @param size Page size (default 50).
+     * @param size Page size (default 50, at most 500).
+     * @param fields Comma-separated province fields to return (optional, default all).
+     * @param expand Comma-separated associations to embed, at most {@code indostore.expand.max-rows} rows each: {@code branches}, {@code stores} (optional).
      * @param req The HTTP request containing the Authorization header.
-     * @return ResponseEntity containing a list of Provinces and message.
+     * @param webRequest The request, used to check {@code If-None-Match} and to set the ETag.
+     * @return ResponseEntity containing a list of Provinces and message, or nothing when not modified.
      */
     @GetMapping
     public ResponseEntity<?> all(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "50") int size,
-            HttpServletRequest req) {
+            @RequestParam(required = false) String fields,
+            @RequestParam(required = false) String expand,
+            HttpServletRequest req,
+            WebRequest webRequest) {
         try {
             getUser(req);
-            List<Province> provinces = provinceService.all(page, size);
+            FieldSelection selection = FieldSelection.parse(fields, expand, ProvinceSummary.class, ProvinceService.EXPANSIONS);
+            if (webRequest.checkNotModified(provinceService.listingTag())) return null;
+            Page<ProvinceSummary> provinces = provinceService.all(page, size);
             return ResponseEntity.ok(Map.of(
                     "message", "Provinces fetched successfully",
-                    "data", provinces
+                    "data", provinceService.shape(provinces.getContent(), selection),
+                    "pagination", pageInfo(provinces)
             ));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of(
@@ -107,6 +125,28 @@ public class ProvinceController {
         }
     }
 
+    /**
+     * Describe the province hierarchy snapshot the province and branch listings are served from.
+     *
+     * @param req The HTTP request containing the Authorization header.
+     * @return ResponseEntity containing the version, build time and sizes of the snapshot, and message.
+     */
+    @GetMapping("/hierarchy")
+    public ResponseEntity<?> hierarchy(HttpServletRequest req) {
+        try {
+            getUser(req);
+            return ResponseEntity.ok(Map.of(
+                    "message", "Hierarchy snapshot fetched successfully",
+                    "data", provinceService.hierarchyInfo()
+            ));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of(
+                    "message", "Failed to fetch hierarchy snapshot",
+                    "error", e.getMessage()
+            ));
+        }
+    }
+
     /**
      * Fetch a single Province by ID.
      *
@@ -134,6 +174,9 @@ public class ProvinceController {
     /**
      * Update an existing Province by ID.
      *
+     * Send the {@code version} of the province as last read to have the update refused with
+     * 409 Conflict when someone else changed the province in the meantime.
+     *
      * @param id Province ID.
      * @param province Updated Province data.
      * @param req The HTTP request containing the Authorization header.
@@ -147,6 +190,11 @@ public class ProvinceController {
                     "message", "Province updated successfully",
                     "data", updated
             ));
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of(
+                    "message", "Failed to update province",
+                    "error", "Province was changed by another user, reload it and try again"
+            ));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of(
                     "message", "Failed to update province",
@@ -169,6 +217,11 @@ public class ProvinceController {
             return ResponseEntity.ok(Map.of(
                     "message", "Province deleted successfully"
             ));
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of(
+                    "message", "Failed to delete province",
+                    "error", "Province was changed by another user, reload it and try again"
+            ));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of(
                     "message", "Failed to delete province",
@@ -182,7 +235,9 @@ public class ProvinceController {
      *
      * @param name Name to search for.
      * @param page Page index (default 0).
-     * @param size Page size (default 50).
+     * @param size Page size (default 50, at most 500).
+     * @param fields Comma-separated province fields to return (optional, default all).
+     * @param expand Comma-separated associations to embed, at most {@code indostore.expand.max-rows} rows each: {@code branches}, {@code stores} (optional).
      * @param req The HTTP request containing the Authorization header.
      * @return ResponseEntity containing the search results and message.
      */
@@ -191,13 +246,17 @@ public class ProvinceController {
             @RequestParam String name,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "50") int size,
+            @RequestParam(required = false) String fields,
+            @RequestParam(required = false) String expand,
             HttpServletRequest req) {
         try {
             getUser(req);
-            List<Province> results = provinceService.searchByName(name, page, size);
+            FieldSelection selection = FieldSelection.parse(fields, expand, ProvinceSummary.class, ProvinceService.EXPANSIONS);
+            Page<ProvinceSummary> results = provinceService.searchByName(name, page, size);
             return ResponseEntity.ok(Map.of(
                     "message", "Provinces fetched successfully",
-                    "data", results
+                    "data", provinceService.shape(results.getContent(), selection),
+                    "pagination", pageInfo(results)
             ));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of(
@@ -212,7 +271,7 @@ public class ProvinceController {
      *
      * @param name Province name to search stores for.
      * @param page Page index (default 0).
-     * @param size Page size (default 50).
+     * @param size Page size (default 50, at most 500).
      * @param req The HTTP request containing the Authorization header.
      * @return ResponseEntity containing stores and message.
      */
@@ -0,0 +1,119 @@
+package com.indomarco.indostore.controller;
+
+import com.indomarco.indostore.dto.SearchHit;
+import com.indomarco.indostore.entity.User;
+import com.indomarco.indostore.search.PrefixTrie;
+import com.indomarco.indostore.service.SearchService;
+import com.indomarco.indostore.service.UserService;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import jakarta.servlet.http.HttpServletRequest;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Controller for searching Provinces, Branches and Stores by name, and for suggesting
+ * them while a name is being typed.
+ *
+ * All endpoints require an Authorization token.
+ */
+@RestController
+@RequestMapping("/api/search")
+public class SearchController {
+
+    private final SearchService searchService;
+    private final UserService userService;
+
+    /**
+     * Constructor for SearchController.
+     *
+     * @param searchService Service for searching by name.
+     * @param userService Service for handling user authentication and token validation.
+     */
+    public SearchController(SearchService searchService, UserService userService) {
+        this.searchService = searchService;
+        this.userService = userService;
+    }
+
+    /**
+     * Helper method to retrieve the authenticated user from the Authorization header.
+     *
+     * @param req The HTTP request containing the Authorization header.
+     * @return Authenticated User object.
+     */
+    private User getUser(HttpServletRequest req) {
+        String token = req.getHeader("Authorization");
+
+        if (token == null || token.isBlank()) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Missing Authorization header");
+        }
+
+        return userService.findByToken(token);
+    }
+
+    /**
+     * Search Provinces, Branches and Stores whose name (or store address) contains the query.
+     *
+     * Hits are ranked: exact names first, then names starting with the query, then names
+     * with a word starting with it, then any other match.
+     *
+     * @param q Text to search for, at least 3 characters; use autocomplete for shorter texts.
+     * @param limit Maximum number of hits (default 20, at most 100).
+     * @param req The HTTP request containing the Authorization header.
+     * @return ResponseEntity containing the ranked hits and message.
+     */
+    @GetMapping
+    public ResponseEntity<?> search(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "20") int limit,
+            HttpServletRequest req) {
+        try {
+            getUser(req);
+            List<SearchHit> hits = searchService.search(q, limit);
+            return ResponseEntity.ok(Map.of(
+                    "message", "Search results fetched successfully",
+                    "data", hits
+            ));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of(
+                    "message", "Failed to search",
+                    "error", e.getMessage()
+            ));
+        }
+    }
+
+    /**
+     * Suggest Provinces, Branches and Stores with a name that has a word starting with the prefix.
+     *
+     * Meant to be called on every keystroke: suggestions come from an in-memory prefix trie
+     * that keeps the best suggestions of every prefix ready, so a call never touches the database.
+     *
+     * @param q Text typed so far.
+     * @param limit Maximum number of suggestions (default 10).
+     * @param req The HTTP request containing the Authorization header.
+     * @return ResponseEntity containing the suggestions and message.
+     */
+    @GetMapping("/autocomplete")
+    public ResponseEntity<?> autocomplete(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "10") int limit,
+            HttpServletRequest req) {
+        try {
+            getUser(req);
+            List<PrefixTrie.Suggestion> suggestions = searchService.autocomplete(q, limit);
+            return ResponseEntity.ok(Map.of(
+                    "message", "Suggestions fetched successfully",
+                    "data", suggestions
+            ));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of(
+                    "message", "Failed to fetch suggestions",
+                    "error", e.getMessage()
+            ));
+        }
+    }
+}
@@ -1,20 +1,33 @@
 package com.indomarco.indostore.controller;
 
+import com.indomarco.indostore.dto.StoreImportResult;
+import com.indomarco.indostore.dto.StoreSummary;
 import com.indomarco.indostore.entity.Store;
 import com.indomarco.indostore.entity.User;
+import com.indomarco.indostore.service.StoreExportService;
+import com.indomarco.indostore.service.StoreImportService;
 import com.indomarco.indostore.service.StoreService;
 import com.indomarco.indostore.service.UserService;
+import com.indomarco.indostore.utility.CursorPage;
+import com.indomarco.indostore.utility.FieldSelection;
 
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Page;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.server.ResponseStatusException;
 
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
-import java.util.List;
 import java.util.Map;
 
+import static com.indomarco.indostore.utility.PaginationUtils.cursorInfo;
+import static com.indomarco.indostore.utility.PaginationUtils.pageInfo;
+
 /**
  * Controller for managing Stores.
  * 
@@ -26,16 +39,23 @@ import java.util.Map;
 public class StoreController {
 
     private final StoreService storeService;
+    private final StoreImportService storeImportService;
+    private final StoreExportService storeExportService;
     private final UserService userService;
 
     /**
      * Constructor for StoreController.
      *
      * @param storeService Service for handling store-related operations.
+     * @param storeImportService Service for importing stores in bulk.
+     * @param storeExportService Service for exporting the full store catalogue.
      * @param userService Service for handling user authentication and token validation.
      */
-    public StoreController(StoreService storeService, UserService userService) {
+    public StoreController(StoreService storeService, StoreImportService storeImportService,
+                           StoreExportService storeExportService, UserService userService) {
         this.storeService = storeService;
+        this.storeImportService = storeImportService;
+        this.storeExportService = storeExportService;
         this.userService = userService;
     }
 
@@ -78,11 +98,88 @@ public class StoreController {
         }
     }
 
+    /**
+     * Import Stores in bulk from a CSV or NDJSON request body.
+     *
+     * The body is streamed and imported in chunks, so it can hold any number of stores.
+     * Rows that cannot be imported are reported with their line number; the other rows
+     * are still imported.
+     *
+     * @param req The HTTP request containing the Authorization header and the stores to import.
+     * @return ResponseEntity containing the number of imported and rejected rows, and the row errors.
+     */
+    @PostMapping(value = "/import", consumes = {"text/csv", "application/x-ndjson"})
+    public ResponseEntity<?> importStores(HttpServletRequest req) {
+        try {
+            User user = getUser(req);
+            StoreImportService.Format format = req.getContentType().startsWith("text/csv")
+                    ? StoreImportService.Format.CSV
+                    : StoreImportService.Format.NDJSON;
+            StoreImportResult result = storeImportService.importStores(req.getInputStream(), format, user);
+            return ResponseEntity.ok(Map.of(
+                    "message", "Stores imported successfully",
+                    "data", result
+            ));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of(
+                    "message", "Failed to import stores",
+                    "error", e.getMessage()
+            ));
+        }
+    }
+
+    /**
+     * Export all Stores, with their branch and province, as NDJSON or CSV.
+     *
+     * The stores are written to the response as they are read from the database, so
+     * the export is not paginated and its size is not limited by memory.
+     *
+     * @param format Output format, {@code ndjson} or {@code csv} (default ndjson).
+     * @param req The HTTP request containing the Authorization header.
+     * @param res The HTTP response the stores are written to.
+     * @return Nothing when the export was written, otherwise ResponseEntity containing the error.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<?> export(
+            @RequestParam(defaultValue = "ndjson") String format,
+            HttpServletRequest req,
+            HttpServletResponse res) {
+        try {
+            getUser(req);
+            StoreExportService.Format exportFormat = switch (format.toLowerCase()) {
+                case "csv" -> StoreExportService.Format.CSV;
+                case "ndjson" -> StoreExportService.Format.NDJSON;
+                default -> throw new IllegalArgumentException("Unsupported format: " + format);
+            };
+            boolean csv = exportFormat == StoreExportService.Format.CSV;
+            res.setContentType(csv ? "text/csv;charset=UTF-8" : "application/x-ndjson;charset=UTF-8");
+            res.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                    "attachment; filename=\"stores." + (csv ? "csv" : "ndjson") + "\"");
+            storeExportService.export(exportFormat, res.getOutputStream());
+            return null;
+        } catch (Exception e) {
+            if (res.isCommitted()) throw new IllegalStateException("Store export aborted", e);
+            res.reset();
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of(
+                    "message", "Failed to export stores",
+                    "error", e.getMessage()
+            ));
+        }
+    }
+
     /**
      * Retrieve all Stores with pagination.
      *
+     * When {@code afterId} is given, keyset pagination is used instead of {@code page}:
+     * the listing seeks past the cursor and the response carries the {@code nextCursor}
+     * to pass as {@code afterId} for the following page. An empty {@code afterId} starts
+     * from the first store.
+     *
      * @param page Page number (default 0).
-     * @param size Page size (default 50).
+     * @param size Page size (default 50, at most 500).
+     * @param afterId Opaque cursor returned as {@code nextCursor} by the previous page (optional).
+     * @param fields Comma-separated store fields to return (optional, default all).
+     * @param expand Comma-separated associations to embed: {@code branch} (optional).
      * @param req The HTTP request containing the Authorization header.
      * @return ResponseEntity containing the list of Stores and pagination info.
      */
@@ -90,13 +187,26 @@ public class StoreController {
     public ResponseEntity<?> all(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "50") int size,
+            @RequestParam(required = false) String afterId,
+            @RequestParam(required = false) String fields,
+            @RequestParam(required = false) String expand,
             HttpServletRequest req) {
         try {
             getUser(req);
-            List<Store> stores = storeService.all(page, size);
+            FieldSelection selection = FieldSelection.parse(fields, expand, StoreSummary.class, StoreService.EXPANSIONS);
+            if (afterId != null) {
+                CursorPage<StoreSummary> stores = storeService.after(afterId, size);
+                return ResponseEntity.ok(Map.of(
+                        "message", "Stores fetched successfully",
+                        "data", storeService.shape(stores.content(), selection),
+                        "pagination", cursorInfo(stores)
+                ));
+            }
+            Page<StoreSummary> stores = storeService.all(page, size);
             return ResponseEntity.ok(Map.of(
                     "message", "Stores fetched successfully",
-                    "data", stores
+                    "data", storeService.shape(stores.getContent(), selection),
+                    "pagination", pageInfo(stores)
             ));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of(
@@ -109,15 +219,20 @@ public class StoreController {
     /**
      * Retrieve a single Store by ID.
      *
+     * Responses carry an ETag; a request whose {@code If-None-Match} matches it is answered
+     * with 304 Not Modified without reading the store.
+     *
      * @param id The ID of the Store to retrieve.
      * @param req The HTTP request containing the Authorization header.
-     * @return ResponseEntity containing the Store and message.
+     * @param webRequest The request, used to check {@code If-None-Match} and to set the ETag.
+     * @return ResponseEntity containing the Store and message, or nothing when not modified.
      */
     @GetMapping("/{id}")
-    public ResponseEntity<?> get(@PathVariable Long id, HttpServletRequest req) {
+    public ResponseEntity<?> get(@PathVariable Long id, HttpServletRequest req, WebRequest webRequest) {
         try {
             getUser(req);
-            Store store = storeService.get(id);
+            if (webRequest.checkNotModified(storeService.summaryTag(id))) return null;
+            StoreSummary store = storeService.getSummary(id);
             return ResponseEntity.ok(Map.of(
                     "message", "Store fetched successfully",
                     "data", store
@@ -133,6 +248,9 @@ public class StoreController {
     /**
      * Update an existing Store by ID.
      *
+     * Send the {@code version} of the store as last read to have the update refused with
+     * 409 Conflict when someone else changed the store in the meantime.
+     *
      * @param id The ID of the Store to update.
      * @param store The updated Store data.
      * @param req The HTTP request containing the Authorization header.
@@ -146,6 +264,11 @@ public class StoreController {
                     "message", "Store updated successfully",
                     "data", updated
             ));
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of(
+                    "message", "Failed to update store",
+                    "error", "Store was changed by another user, reload it and try again"
+            ));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of(
                     "message", "Failed to update store",
@@ -168,6 +291,11 @@ public class StoreController {
             return ResponseEntity.ok(Map.of(
                     "message", "Store deleted successfully"
             ));
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of(
+                    "message", "Failed to delete store",
+                    "error", "Store was changed by another user, reload it and try again"
+            ));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of(
                     "message", "Failed to delete store",
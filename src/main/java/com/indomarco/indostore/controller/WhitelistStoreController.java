@@ -1,20 +1,22 @@
 package com.indomarco.indostore.controller;
 
-import com.indomarco.indostore.entity.Store;
+import com.indomarco.indostore.dto.StoreSummary;
 import com.indomarco.indostore.entity.User;
 import com.indomarco.indostore.entity.WhitelistStore;
 import com.indomarco.indostore.service.WhitelistStoreService;
 import com.indomarco.indostore.service.UserService;
 
+import org.springframework.data.domain.Page;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
 
 import jakarta.servlet.http.HttpServletRequest;
-import java.util.List;
 import java.util.Map;
 
+import static com.indomarco.indostore.utility.PaginationUtils.pageInfo;
+
 /**
  * Controller for managing Whitelist Stores.
  * 
@@ -82,7 +84,7 @@ public class WhitelistStoreController {
      * Retrieve all WhitelistStores with pagination.
      *
      * @param page Page number (default 0).
-     * @param size Page size (default 50).
+     * @param size Page size (default 50, at most 500).
      * @param req The HTTP request containing the Authorization header.
      * @return ResponseEntity containing the list of Stores and message.
      */
@@ -93,10 +95,11 @@ public class WhitelistStoreController {
             HttpServletRequest req) {
         try {
             getUser(req);
-            List<Store> list = whitelistService.all(page, size);
+            Page<StoreSummary> list = whitelistService.all(page, size);
             return ResponseEntity.ok(Map.of(
                     "message", "Whitelist stores retrieved successfully",
-                    "data", list
+                    "data", list.getContent(),
+                    "pagination", pageInfo(list)
             ));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of(
@@ -0,0 +1,21 @@
+package com.indomarco.indostore.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * An audit log entry as returned by the audit log API, with the ID and name of its user.
+ *
+ * Read straight from the query result, so the user entity, with its password and token,
+ * is never loaded or serialized.
+ */
+public record AuditLogEntry(
+        Long id,
+        String tableName,
+        Long recordId,
+        String action,
+        LocalDateTime timestamp,
+        String oldValue,
+        String newValue,
+        Long userId,
+        String userName) {
+}
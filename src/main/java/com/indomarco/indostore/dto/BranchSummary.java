@@ -0,0 +1,14 @@
+package com.indomarco.indostore.dto;
+
+/**
+ * The columns of a branch shown in listings, with the name of its province.
+ *
+ * Read straight from the query result, so rendering it never loads the stores of the branch.
+ */
+public record BranchSummary(
+        Long id,
+        String name,
+        Boolean isActive,
+        Long provinceId,
+        String provinceName) {
+}
@@ -0,0 +1,12 @@
+package com.indomarco.indostore.dto;
+
+/**
+ * The columns of a province shown in listings and search results.
+ *
+ * Read straight from the query result, so rendering it never loads the branches of the province.
+ */
+public record ProvinceSummary(
+        Long id,
+        String name,
+        Boolean isActive) {
+}
@@ -0,0 +1,16 @@
+package com.indomarco.indostore.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * One result of a name search, read from the in-memory search index.
+ *
+ * @param type The kind of entity found: {@code province}, {@code branch} or {@code store}.
+ * @param id The ID of the entity.
+ * @param name The name of the entity.
+ * @param address The address of the store; absent for provinces and branches.
+ * @param score The rank of the match; higher is better.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record SearchHit(String type, long id, String name, String address, int score) {
+}
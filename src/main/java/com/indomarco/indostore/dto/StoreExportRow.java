@@ -0,0 +1,17 @@
+package com.indomarco.indostore.dto;
+
+/**
+ * One store of the catalogue export, flattened with the names of its branch and province.
+ *
+ * Read straight from the query result, so exporting does not hydrate or track entities.
+ */
+public record StoreExportRow(
+        Long id,
+        String name,
+        String address,
+        Boolean isActive,
+        Long branchId,
+        String branchName,
+        Long provinceId,
+        String provinceName) {
+}
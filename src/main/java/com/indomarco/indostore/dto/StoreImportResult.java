@@ -0,0 +1,37 @@
+package com.indomarco.indostore.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of a bulk store import.
+ *
+ * Counts every imported and rejected row, and keeps the reason of the first
+ * {@link #MAX_REPORTED_ERRORS} rejected rows.
+ */
+public class StoreImportResult {
+    /** The maximum number of row errors kept in the report. */
+    public static final int MAX_REPORTED_ERRORS = 1000;
+
+    /** An error for one input row. */
+    public record RowError(long line, String error) {}
+
+    private long imported;
+    private long failed;
+    private final List<RowError> errors = new ArrayList<>();
+
+    /** Records rows that were imported. */
+    public void addImported(int count) { imported += count; }
+
+    /** Records a row that was rejected and why. */
+    public void addError(long line, String error) {
+        failed++;
+        if (errors.size() < MAX_REPORTED_ERRORS) errors.add(new RowError(line, error));
+    }
+
+    /** Getters */
+    public long getImported() { return imported; }
+    public long getFailed() { return failed; }
+    public List<RowError> getErrors() { return errors; }
+    public boolean isErrorsTruncated() { return failed > errors.size(); }
+}
@@ -0,0 +1,21 @@
+package com.indomarco.indostore.dto;
+
+/**
+ * The columns of a store shown in listings, with the name of its branch and the ID of its province.
+ *
+ * Read straight from the query result, so rendering it never loads related entities.
+ *
+ * @param whitelistStoreId The ID of the whitelist entry of the store, or null when it is not whitelisted.
+ * @param version The version of the store, to send back when updating it.
+ */
+public record StoreSummary(
+        Long id,
+        String name,
+        String address,
+        Boolean isActive,
+        Long branchId,
+        String branchName,
+        Long provinceId,
+        Long whitelistStoreId,
+        Long version) {
+}
@@ -9,13 +9,21 @@ import java.time.LocalDateTime;
  * Each audit log records changes made to a database table,
  * including the old and new values, the action performed,
  * the timestamp, and the user who performed the action.
+ *
+ * Entries are read newest first, by record, by user or by time range; each of these
+ * has an index ending in (timestamp, id) so that a page is a single index range scan.
  */
 @Entity
-@Table(name = "audit_log")
+@Table(name = "audit_log", indexes = {
+        @Index(name = "idx_audit_log_record_time", columnList = "table_name, record_id, timestamp, id"),
+        @Index(name = "idx_audit_log_user_time", columnList = "user_id, timestamp, id"),
+        @Index(name = "idx_audit_log_time", columnList = "timestamp, id")
+})
 public class AuditLog {
     /** The unique identifier for the audit log entry. */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "audit_log_seq")
+    @SequenceGenerator(name = "audit_log_seq", sequenceName = "audit_log_seq", allocationSize = 50)
     private Long id;
 
     /** The name of the table where the change occurred. */
@@ -27,20 +35,24 @@ public class AuditLog {
     /** The action performed (e.g., CREATE, UPDATE, DELETE). */
     private String action;
 
-    /** The timestamp when the action was performed. */
+    /** The timestamp when the action was performed; the table is partitioned by month on it. */
+    @Column(nullable = false)
     private LocalDateTime timestamp;
 
-    /** The previous value of the record (stored as text). */
+    /** The changed fields of the record before the action, as a JSON object. */
     @Column(columnDefinition = "TEXT")
     private String oldValue;
     
-    /** The new value of the record (stored as text). */
+    /** The changed fields of the record after the action, as a JSON object. */
     @Column(columnDefinition = "TEXT")
     private String newValue;
 
-     /** The user who performed the action. Cannot be null. */
+     /**
+     * The user who performed the action. Cannot be null.
+     * Not backed by a foreign key, which MySQL does not allow on partitioned tables.
+     */
     @ManyToOne
-    @JoinColumn(name = "user_id", nullable = false)
+    @JoinColumn(name = "user_id", nullable = false, foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT))
     private User user;
 
     /** Getters & Setters */
@@ -6,18 +6,28 @@ import jakarta.validation.constraints.NotNull;
 import java.util.List;
 import com.fasterxml.jackson.annotation.JsonBackReference;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
 
 /**
  * Represents a branch within a province in the Indostore system.
  * 
  * Each branch belongs to one province and can have multiple stores associated with it.
+ * Branches and their store lists are kept in the second-level cache.
  */
 @Entity
-@Table(name = "branches")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "branches")
+@Table(name = "branches", indexes = {
+        @Index(name = "idx_branches_flags", columnList = "is_deleted, is_active"),
+        @Index(name = "idx_branches_province_flags", columnList = "province_id, is_deleted, is_active")
+})
 public class Branch {
     /** The unique identifier for the branch. */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "branches_seq")
+    @SequenceGenerator(name = "branches_seq", sequenceName = "branches_seq", allocationSize = 50)
     private Long id;
 
     /** The name of the branch. Cannot be blank. */
@@ -29,6 +39,15 @@ public class Branch {
     /** Indicates whether the branch is deleted. Defaults to false. */
     private Boolean isDeleted = false;
 
+    /**
+     * Incremented on every update. An update or delete that read an older version fails
+     * with an optimistic locking failure instead of overwriting the newer data.
+     */
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+
     /**
      * The province this branch belongs to.
      * Back reference for JSON serialization to prevent infinite recursion.
@@ -41,6 +60,7 @@ public class Branch {
 
     /** List of stores associated with this branch */
     @OneToMany(mappedBy = "branch")
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "branch-stores")
     @JsonManagedReference
     private List<Store> stores;
 
@@ -57,6 +77,9 @@ public class Branch {
     public Boolean getIsDeleted() { return isDeleted; }
     public void setIsDeleted(Boolean isDeleted) { this.isDeleted = isDeleted; }
 
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
+
     public Province getProvince() { return province; }
     public void setProvince(Province province) { this.province = province; }
 
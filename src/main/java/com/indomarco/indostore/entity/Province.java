@@ -4,18 +4,27 @@ import jakarta.persistence.*;
 import java.util.List;
 import jakarta.validation.constraints.NotBlank;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
 
 /**
  * Represents a province in the Indostore system.
  * 
  * Each province has a name, active status, deletion status, and a list of branches associated with it.
+ * Provinces and their branch lists are kept in the second-level cache.
  */
 @Entity
-@Table(name = "provinces")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "provinces")
+@Table(name = "provinces", indexes = {
+        @Index(name = "idx_provinces_flags", columnList = "is_deleted, is_active")
+})
 public class Province {
     /** The unique identifier for the province. */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "provinces_seq")
+    @SequenceGenerator(name = "provinces_seq", sequenceName = "provinces_seq", allocationSize = 50)
     private Long id;
 
     /** The name of the province. Cannot be blank. */
@@ -27,8 +36,18 @@ public class Province {
     /** Indicates whether the province is deleted. Defaults to false. */
     private Boolean isDeleted = false;
 
+    /**
+     * Incremented on every update. An update or delete that read an older version fails
+     * with an optimistic locking failure instead of overwriting the newer data.
+     */
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+
     /** List of branches associated with this province */
     @OneToMany(mappedBy = "province")
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "province-branches")
     @JsonManagedReference
     private List<Branch> branches;
 
@@ -45,6 +64,9 @@ public class Province {
     public Boolean getIsDeleted() { return isDeleted; }
     public void setIsDeleted(Boolean isDeleted) { this.isDeleted = isDeleted; }
 
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
+
     public List<Branch> getBranches() { return branches; }
     public void setBranches(List<Branch> branches) { this.branches = branches; }
 }
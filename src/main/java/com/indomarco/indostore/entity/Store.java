@@ -5,18 +5,28 @@ import com.fasterxml.jackson.annotation.JsonManagedReference;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
 
 /**
  * Represents a store within a branch in the Indostore system.
  * 
  * Each store belongs to one branch and can optionally be part of a whitelist.
+ * Stores are kept in the second-level cache.
  */
 @Entity
-@Table(name = "stores")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "stores")
+@Table(name = "stores", indexes = {
+        @Index(name = "idx_stores_flags", columnList = "is_deleted, is_active"),
+        @Index(name = "idx_stores_branch_flags", columnList = "branch_id, is_deleted, is_active")
+})
 public class Store {
     /** The unique identifier for the store. */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "stores_seq")
+    @SequenceGenerator(name = "stores_seq", sequenceName = "stores_seq", allocationSize = 50)
     private Long id;
 
     /** The name of the store. Cannot be blank. */
@@ -31,6 +41,15 @@ public class Store {
     /** Indicates whether the store is deleted. Defaults to false. */
     private Boolean isDeleted = false;
 
+    /**
+     * Incremented on every update. An update or delete that read an older version fails
+     * with an optimistic locking failure instead of overwriting the newer data.
+     */
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+
      /**
      * The branch this store belongs to.
      * Back reference for JSON serialization to prevent infinite recursion.
@@ -62,6 +81,9 @@ public class Store {
     public Boolean getIsDeleted() { return isDeleted; }
     public void setIsDeleted(Boolean isDeleted) { this.isDeleted = isDeleted; }
 
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
+
     public Branch getBranch() { return branch; }
     public void setBranch(Branch branch) { this.branch = branch; }
 
@@ -12,11 +12,14 @@ import java.util.List;
  * Users can have multiple audit logs associated with their actions.
  */
 @Entity
-@Table(name = "users")
+@Table(name = "users", indexes = {
+        @Index(name = "idx_users_token", columnList = "token")
+})
 public class User {
     /** The unique identifier for the user. */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+    @SequenceGenerator(name = "users_seq", sequenceName = "users_seq", allocationSize = 50)
     private Long id;
 
     /** The user's email address. Must be unique and valid. */
@@ -15,7 +15,8 @@ import jakarta.persistence.*;
 public class WhitelistStore {
     /** The unique identifier for the whitelist store. */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "whitelist_stores_seq")
+    @SequenceGenerator(name = "whitelist_stores_seq", sequenceName = "whitelist_stores_seq", allocationSize = 50)
     private Long id;
 
     /**
@@ -1,11 +1,60 @@
 package com.indomarco.indostore.repository;
 
+import com.indomarco.indostore.dto.AuditLogEntry;
 import com.indomarco.indostore.entity.*;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
 
 /**
  * Repository interface for AuditLog entity.
- * 
+ *
  * Provides standard CRUD operations and query methods for AuditLog.
+ *
+ * Additionally, this repository defines keyset queries returning {@link AuditLogEntry}
+ * projections newest first, in (timestamp, id) descending order. Each returns the entries
+ * from {@code from} (inclusive) that come before the ({@code beforeTime}, {@code beforeId})
+ * position, and is answered by a range scan of the matching index of {@link AuditLog}:
+ * {@link #findEntriesOfRecord} - the entries of one record of a table.
+ * {@link #findEntriesOfUser} - the entries written by one user.
+ * {@link #findEntries} - the entries of every table and user.
  */
-public interface AuditLogRepository extends JpaRepository<AuditLog, Long> {}
+public interface AuditLogRepository extends JpaRepository<AuditLog, Long> {
+    @Query("SELECT new com.indomarco.indostore.dto.AuditLogEntry(a.id, a.tableName, a.recordId, a.action, "
+            + "a.timestamp, a.oldValue, a.newValue, u.id, u.name) "
+            + "FROM AuditLog a JOIN a.user u "
+            + "WHERE a.tableName = :tableName AND a.recordId = :recordId "
+            + "AND a.timestamp >= :from AND a.timestamp <= :beforeTime "
+            + "AND (a.timestamp < :beforeTime OR a.id < :beforeId) "
+            + "ORDER BY a.timestamp DESC, a.id DESC")
+    List<AuditLogEntry> findEntriesOfRecord(@Param("tableName") String tableName, @Param("recordId") Long recordId,
+                                            @Param("from") LocalDateTime from,
+                                            @Param("beforeTime") LocalDateTime beforeTime,
+                                            @Param("beforeId") Long beforeId, Limit limit);
+
+    @Query("SELECT new com.indomarco.indostore.dto.AuditLogEntry(a.id, a.tableName, a.recordId, a.action, "
+            + "a.timestamp, a.oldValue, a.newValue, u.id, u.name) "
+            + "FROM AuditLog a JOIN a.user u "
+            + "WHERE a.user.id = :userId "
+            + "AND a.timestamp >= :from AND a.timestamp <= :beforeTime "
+            + "AND (a.timestamp < :beforeTime OR a.id < :beforeId) "
+            + "ORDER BY a.timestamp DESC, a.id DESC")
+    List<AuditLogEntry> findEntriesOfUser(@Param("userId") Long userId,
+                                          @Param("from") LocalDateTime from,
+                                          @Param("beforeTime") LocalDateTime beforeTime,
+                                          @Param("beforeId") Long beforeId, Limit limit);
+
+    @Query("SELECT new com.indomarco.indostore.dto.AuditLogEntry(a.id, a.tableName, a.recordId, a.action, "
+            + "a.timestamp, a.oldValue, a.newValue, u.id, u.name) "
+            + "FROM AuditLog a JOIN a.user u "
+            + "WHERE a.timestamp >= :from AND a.timestamp <= :beforeTime "
+            + "AND (a.timestamp < :beforeTime OR a.id < :beforeId) "
+            + "ORDER BY a.timestamp DESC, a.id DESC")
+    List<AuditLogEntry> findEntries(@Param("from") LocalDateTime from,
+                                    @Param("beforeTime") LocalDateTime beforeTime,
+                                    @Param("beforeId") Long beforeId, Limit limit);
+}
@@ -1,7 +1,16 @@
 package com.indomarco.indostore.repository;
 
+import com.indomarco.indostore.dto.BranchSummary;
 import com.indomarco.indostore.entity.*;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -9,10 +18,30 @@ import java.util.List;
  * 
  * Provides standard CRUD operations and query methods for Branch.
  * 
- * Additionally, this repository defines a custom query method:
- * {@link #findByIsActiveTrueAndIsDeletedFalse()} - returns a list of branches
- * that are active and not deleted.
+ * Additionally, this repository defines custom query methods:
+ * {@link #findActiveSummaries(Pageable)} - returns one page of branches that are active and not deleted,
+ * as {@link BranchSummary} projections holding the name of their province.
+ * {@link #findActiveSummariesAfter(Long, Limit)} - seeks past the given ID and returns the next active,
+ * not deleted branches in ID order (keyset pagination).
+ * {@link #findSummariesByIdIn(Collection)} - returns the projections of the branches with the given IDs.
+ * {@link #findExistingIds(Collection)} - returns which of the given IDs belong to a branch, without loading the branches.
  */
 public interface BranchRepository extends JpaRepository<Branch, Long> {
-    List<Branch> findByIsActiveTrueAndIsDeletedFalse();
+    @Query(value = "SELECT new com.indomarco.indostore.dto.BranchSummary(b.id, b.name, b.isActive, p.id, p.name) "
+            + "FROM Branch b JOIN b.province p WHERE b.isActive = true AND b.isDeleted = false",
+            countQuery = "SELECT COUNT(b) FROM Branch b WHERE b.isActive = true AND b.isDeleted = false")
+    Page<BranchSummary> findActiveSummaries(Pageable pageable);
+
+    @Query("SELECT new com.indomarco.indostore.dto.BranchSummary(b.id, b.name, b.isActive, p.id, p.name) "
+            + "FROM Branch b JOIN b.province p WHERE b.isActive = true AND b.isDeleted = false AND b.id > :afterId "
+            + "ORDER BY b.id")
+    List<BranchSummary> findActiveSummariesAfter(@Param("afterId") Long afterId, Limit limit);
+
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
+    @Query("SELECT new com.indomarco.indostore.dto.BranchSummary(b.id, b.name, b.isActive, p.id, p.name) "
+            + "FROM Branch b JOIN b.province p WHERE b.id IN :ids")
+    List<BranchSummary> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT b.id FROM Branch b WHERE b.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
 }
@@ -1,7 +1,15 @@
 package com.indomarco.indostore.repository;
 
+import com.indomarco.indostore.dto.ProvinceSummary;
 import com.indomarco.indostore.entity.*;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -10,10 +18,27 @@ import java.util.List;
  * Provides standard CRUD operations and query methods for Province.
  * 
  * Additionally, this repository defines custom query methods:
- * {@link #findByIsActiveTrueAndIsDeletedFalse()} - returns all active provinces that are not deleted.
- * {@link #findByNameContainingIgnoreCaseAndIsActiveTrueAndIsDeletedFalse(String)} - returns all active and not deleted provinces whose names contain the given string, ignoring case.
+ * {@link #findActiveSummaries(Pageable)} - returns one page of active provinces that are not deleted,
+ * as {@link ProvinceSummary} projections.
+ * {@link #searchActiveSummaries(String, Pageable)} - returns one page of active and not deleted provinces whose names contain the given string, ignoring case.
+ * {@link #findSummariesByIdIn(Collection)} - returns the projections of the provinces with the given IDs.
  */
 public interface ProvinceRepository extends JpaRepository<Province, Long> {
-    List<Province> findByIsActiveTrueAndIsDeletedFalse();
-    List<Province> findByNameContainingIgnoreCaseAndIsActiveTrueAndIsDeletedFalse(String name);
+    @Query(value = "SELECT new com.indomarco.indostore.dto.ProvinceSummary(p.id, p.name, p.isActive) "
+            + "FROM Province p WHERE p.isActive = true AND p.isDeleted = false",
+            countQuery = "SELECT COUNT(p) FROM Province p WHERE p.isActive = true AND p.isDeleted = false")
+    Page<ProvinceSummary> findActiveSummaries(Pageable pageable);
+
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
+    @Query(value = "SELECT new com.indomarco.indostore.dto.ProvinceSummary(p.id, p.name, p.isActive) "
+            + "FROM Province p WHERE LOWER(p.name) LIKE LOWER(CONCAT('%', :name, '%')) "
+            + "AND p.isActive = true AND p.isDeleted = false",
+            countQuery = "SELECT COUNT(p) FROM Province p WHERE LOWER(p.name) LIKE LOWER(CONCAT('%', :name, '%')) "
+            + "AND p.isActive = true AND p.isDeleted = false")
+    Page<ProvinceSummary> searchActiveSummaries(@Param("name") String name, Pageable pageable);
+
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
+    @Query("SELECT new com.indomarco.indostore.dto.ProvinceSummary(p.id, p.name, p.isActive) "
+            + "FROM Province p WHERE p.id IN :ids")
+    List<ProvinceSummary> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
 }
@@ -1,18 +1,56 @@
 package com.indomarco.indostore.repository;
 
+import com.indomarco.indostore.dto.StoreExportRow;
+import com.indomarco.indostore.dto.StoreSummary;
 import com.indomarco.indostore.entity.*;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repository interface for Store entity.
  * 
  * Provides standard CRUD operations and query methods for Store.
  * 
- * Additionally, this repository defines a custom query method:
- * {@link #findByIsActiveTrueAndIsDeletedFalse()} - returns a list of stores
- * that are active and not deleted.
+ * Additionally, this repository defines custom query methods:
+ * {@link #findActiveSummaries(Pageable)} - returns one page of stores that are active and not deleted,
+ * as {@link StoreSummary} projections holding the name of their branch and their whitelist entry ID.
+ * {@link #findActiveSummariesAfter(Long, Limit)} - seeks past the given ID and returns the next active,
+ * not deleted stores in ID order (keyset pagination).
+ * {@link #findSummaryById(Long)} - returns the projection of a store, whether it is active or not.
+ * {@link #streamExportRows()} - streams every not deleted store with its branch and province names,
+ * fetched from a forward-only cursor in chunks; must be consumed inside a transaction and closed.
  */
 public interface StoreRepository extends JpaRepository<Store, Long> {
-    List<Store> findByIsActiveTrueAndIsDeletedFalse();
+    @Query(value = "SELECT new com.indomarco.indostore.dto.StoreSummary(s.id, s.name, s.address, s.isActive, "
+            + "b.id, b.name, b.province.id, w.id, s.version) "
+            + "FROM Store s JOIN s.branch b LEFT JOIN s.whitelistStore w WHERE s.isActive = true AND s.isDeleted = false",
+            countQuery = "SELECT COUNT(s) FROM Store s WHERE s.isActive = true AND s.isDeleted = false")
+    Page<StoreSummary> findActiveSummaries(Pageable pageable);
+
+    @Query("SELECT new com.indomarco.indostore.dto.StoreSummary(s.id, s.name, s.address, s.isActive, "
+            + "b.id, b.name, b.province.id, w.id, s.version) "
+            + "FROM Store s JOIN s.branch b LEFT JOIN s.whitelistStore w "
+            + "WHERE s.isActive = true AND s.isDeleted = false AND s.id > :afterId ORDER BY s.id")
+    List<StoreSummary> findActiveSummariesAfter(@Param("afterId") Long afterId, Limit limit);
+
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
+    @Query("SELECT new com.indomarco.indostore.dto.StoreSummary(s.id, s.name, s.address, s.isActive, "
+            + "b.id, b.name, b.province.id, w.id, s.version) "
+            + "FROM Store s JOIN s.branch b LEFT JOIN s.whitelistStore w WHERE s.id = :id")
+    Optional<StoreSummary> findSummaryById(@Param("id") Long id);
+
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "1000"))
+    @Query("SELECT new com.indomarco.indostore.dto.StoreExportRow(s.id, s.name, s.address, s.isActive, "
+            + "b.id, b.name, p.id, p.name) "
+            + "FROM Store s JOIN s.branch b JOIN b.province p WHERE s.isDeleted = false ORDER BY s.id")
+    Stream<StoreExportRow> streamExportRows();
 }
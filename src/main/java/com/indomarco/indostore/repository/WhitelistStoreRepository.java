@@ -1,10 +1,12 @@
 package com.indomarco.indostore.repository;
 
+import com.indomarco.indostore.dto.StoreSummary;
 import com.indomarco.indostore.entity.*;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import java.util.List;
 
 /**
  * Repository interface for WhitelistStore entity.
@@ -14,6 +16,8 @@ import org.springframework.data.repository.query.Param;
  * Additionally, this repository defines a custom delete method:
  * {@link #deleteByIdCustom(Long)} - deletes a whitelist store by its ID using a custom query.
  * {@link #existsByStore(Store)} - Checks if a WhitelistStore already exists for a given {@link Store}
+ * {@link #findAllActiveStores()} - returns the whitelisted stores that are active and not deleted, ordered by ID,
+ * as {@link StoreSummary} projections.
  */
 public interface WhitelistStoreRepository extends JpaRepository<WhitelistStore, Long> {
     @Modifying
@@ -21,5 +25,11 @@ public interface WhitelistStoreRepository extends JpaRepository<WhitelistStore,
     void deleteByIdCustom(@Param("id") Long id);
 
     boolean existsByStore(Store store);
+
+    @Query("SELECT new com.indomarco.indostore.dto.StoreSummary(s.id, s.name, s.address, s.isActive, "
+            + "b.id, b.name, b.province.id, w.id, s.version) "
+            + "FROM Store s JOIN s.whitelistStore w JOIN s.branch b "
+            + "WHERE s.isActive = true AND s.isDeleted = false ORDER BY s.id")
+    List<StoreSummary> findAllActiveStores();
 }
 
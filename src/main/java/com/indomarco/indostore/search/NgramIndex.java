@@ -0,0 +1,454 @@
+package com.indomarco.indostore.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory trigram inverted index over one text field of an entity.
+ *
+ * Every indexed text is stored in a numbered slot, lower-cased and split into all its
+ * overlapping three-character grams; each gram maps to the slots of the texts containing
+ * it, kept as a sorted {@code int[]}. A query is answered by intersecting the postings of
+ * its rarest grams and checking the remaining candidates with a substring match, so every
+ * match contains the query like a case-insensitive {@code LIKE '%query%'}. Queries must be
+ * at least {@link #MIN_QUERY_LENGTH} characters long so that they have a gram to look up.
+ *
+ * A search keeps only the best {@code limit} matches in a heap while it checks the
+ * candidates, and checks at most {@code maxCandidates} of them, so a query matching most
+ * of the texts costs a bounded amount of work; its matches are then the best among the
+ * first candidates in slot order.
+ *
+ * A changed text takes a new slot, so postings stay sorted by only ever being appended
+ * to, and its old slot is emptied. Once the empty slots outnumber the indexed texts, the
+ * index is rebuilt without them.
+ *
+ * Reads are lock-free and may run concurrently with writes. Writes are serialized; a
+ * reader racing with a write may miss the text being written, but never returns it twice.
+ */
+public class NgramIndex {
+    static final int GRAM_LENGTH = 3;
+
+    /** The shortest query {@link #search(String, int)} accepts. */
+    public static final int MIN_QUERY_LENGTH = GRAM_LENGTH;
+
+    /** The most postings a search intersects, taking those of the rarest grams of the query. */
+    private static final int MAX_INTERSECTED_GRAMS = 3;
+
+    /** Empty slots tolerated before the index is rebuilt, on top of one per indexed text. */
+    private static final int MIN_EMPTY_SLOTS = 1024;
+
+    /** An indexed text. */
+    private record Entry(long id, String text, String normalized) {}
+
+    /**
+     * A text matching a query.
+     *
+     * @param id The ID of the indexed entity.
+     * @param text The indexed text, as given.
+     * @param score The rank of the match; higher is better.
+     */
+    public record Match(long id, String text, int score) {}
+
+    /** Orders matches by score, then shorter texts first, then by ID. */
+    public static final Comparator<Match> RANKING = Comparator.comparingInt(Match::score).reversed()
+            .thenComparingInt(m -> m.text().length())
+            .thenComparingLong(Match::id);
+
+    private static final Comparator<Match> WORST_FIRST = RANKING.reversed();
+
+    static final int SCORE_EXACT = 100;
+    static final int SCORE_PREFIX = 75;
+    static final int SCORE_WORD_PREFIX = 50;
+    static final int SCORE_SUBSTRING = 25;
+
+    /**
+     * The slots of the texts containing one gram, in ascending order.
+     *
+     * The writer fills the array before publishing the new size, so a reader that reads
+     * the size first and the array second sees at least that many slots.
+     */
+    private static final class Postings {
+        volatile int[] slots = new int[4];
+        volatile int size;
+
+        void add(int slot) {
+            int[] current = slots;
+            if (size == current.length) {
+                current = Arrays.copyOf(current, current.length + Math.max(current.length >> 1, 4));
+                slots = current;
+            }
+            current[size] = slot;
+            size = size + 1;
+        }
+
+        void trim() {
+            if (slots.length > size) slots = Arrays.copyOf(slots, Math.max(size, 1));
+        }
+    }
+
+    /**
+     * Open-addressing table from entity ID to slot, written by one thread at a time.
+     *
+     * Removed IDs keep their key with slot -1, so a key is never taken out of a probe
+     * sequence; they are dropped when the table grows. A reader racing with a write may
+     * read a stale or unset slot, which {@link #get(long)} detects by checking the ID of
+     * the entry in that slot.
+     */
+    private static final class SlotTable {
+        private static final long FREE = Long.MIN_VALUE;
+
+        private record Table(long[] ids, int[] slots) {
+            Table(int capacity) {
+                this(new long[capacity], new int[capacity]);
+                Arrays.fill(ids, FREE);
+            }
+        }
+
+        private volatile Table table = new Table(16);
+        private int used;
+
+        private static int indexOf(Table table, long id) {
+            int mask = table.ids().length - 1;
+            long h = id * 0x9E3779B97F4A7C15L;
+            int i = (int) (h ^ (h >>> 32)) & mask;
+            while (table.ids()[i] != FREE && table.ids()[i] != id) {
+                i = (i + 1) & mask;
+            }
+            return i;
+        }
+
+        int get(long id) {
+            Table current = table;
+            int i = indexOf(current, id);
+            return current.ids()[i] == id ? current.slots()[i] : -1;
+        }
+
+        void put(long id, int slot) {
+            Table current = table;
+            int i = indexOf(current, id);
+            if (current.ids()[i] == id) {
+                current.slots()[i] = slot;
+                return;
+            }
+            if ((used + 1) * 4L > current.ids().length * 3L) {
+                current = grow(current);
+                i = indexOf(current, id);
+            }
+            current.slots()[i] = slot;
+            current.ids()[i] = id;
+            used++;
+        }
+
+        void remove(long id) {
+            Table current = table;
+            int i = indexOf(current, id);
+            if (current.ids()[i] == id) current.slots()[i] = -1;
+        }
+
+        private Table grow(Table current) {
+            int live = 0;
+            for (int slot : current.slots()) {
+                if (slot >= 0) live++;
+            }
+            int capacity = 16;
+            while (capacity < (live + 1) * 2) capacity <<= 1;
+            Table grown = new Table(capacity);
+            for (int i = 0; i < current.ids().length; i++) {
+                if (current.ids()[i] != FREE && current.slots()[i] >= 0) {
+                    int at = indexOf(grown, current.ids()[i]);
+                    grown.ids()[at] = current.ids()[i];
+                    grown.slots()[at] = current.slots()[i];
+                }
+            }
+            used = live;
+            table = grown;
+            return grown;
+        }
+    }
+
+    /** The slots and postings of one build of the index; replaced as a whole when it is rebuilt. */
+    private static final class Data {
+        final Map<String, Postings> postings = new ConcurrentHashMap<>();
+        final SlotTable slotsById = new SlotTable();
+        volatile Entry[] entries = new Entry[16];
+        /** Slots handed out so far, including emptied ones. */
+        int slotCount;
+        volatile int size;
+    }
+
+    private final int maxCandidates;
+    private volatile Data data = new Data();
+
+    /**
+     * Creates an empty index.
+     *
+     * @param maxCandidates The most candidates a search checks against the query.
+     */
+    public NgramIndex(int maxCandidates) {
+        this.maxCandidates = maxCandidates;
+    }
+
+    /**
+     * Returns whether a query is long enough to be searched.
+     *
+     * @param query The text to look for.
+     * @return True when the query has at least {@link #MIN_QUERY_LENGTH} characters besides surrounding blanks.
+     */
+    public static boolean isSearchable(String query) {
+        return query != null && normalize(query).length() >= MIN_QUERY_LENGTH;
+    }
+
+    /**
+     * Adds a text to the index, replacing the text previously indexed for the same ID.
+     *
+     * @param id The ID of the entity.
+     * @param text The text to index; a null or blank text removes the entity instead.
+     */
+    public synchronized void put(long id, String text) {
+        if (text == null || text.isBlank()) {
+            remove(id);
+            return;
+        }
+        Data current = data;
+        Entry previous = entryOf(current, id);
+        if (previous != null && previous.text().equals(text)) return;
+        // The old slot is emptied before the new one is posted, so a reader never finds both
+        if (previous != null) clear(current, current.slotsById.get(id));
+        append(current, new Entry(id, text, normalize(text)));
+        if (previous == null) current.size = current.size + 1;
+        compactIfSparse(current);
+    }
+
+    /**
+     * Removes an entity from the index.
+     *
+     * @param id The ID of the entity.
+     */
+    public synchronized void remove(long id) {
+        Data current = data;
+        if (entryOf(current, id) == null) return;
+        clear(current, current.slotsById.get(id));
+        current.slotsById.remove(id);
+        current.size = current.size - 1;
+        compactIfSparse(current);
+    }
+
+    private static void clear(Data data, int slot) {
+        data.entries[slot] = null;
+    }
+
+    private static void append(Data data, Entry entry) {
+        int slot = data.slotCount++;
+        Entry[] entries = data.entries;
+        if (slot == entries.length) {
+            entries = Arrays.copyOf(entries, entries.length + (entries.length >> 1));
+            data.entries = entries;
+        }
+        entries[slot] = entry;
+        String normalized = entry.normalized();
+        for (int i = 0; i + GRAM_LENGTH <= normalized.length(); i++) {
+            String gram = normalized.substring(i, i + GRAM_LENGTH);
+            Postings postings = data.postings.get(gram);
+            if (postings == null) {
+                postings = new Postings();
+                data.postings.put(gram, postings);
+            }
+            // A gram repeated in the text was already posted with this same, newest slot
+            if (postings.size == 0 || postings.slots[postings.size - 1] != slot) postings.add(slot);
+        }
+        data.slotsById.put(entry.id(), slot);
+    }
+
+    private void compactIfSparse(Data current) {
+        if (current.slotCount - current.size <= current.size + MIN_EMPTY_SLOTS) return;
+        Data rebuilt = new Data();
+        Entry[] entries = current.entries;
+        for (int slot = 0; slot < current.slotCount; slot++) {
+            if (entries[slot] != null) append(rebuilt, entries[slot]);
+        }
+        rebuilt.size = current.size;
+        rebuilt.postings.values().forEach(Postings::trim);
+        data = rebuilt;
+    }
+
+    /**
+     * Shrinks every posting to its size; meant to be called once a bulk load is done.
+     */
+    public synchronized void trimToSize() {
+        Data current = data;
+        current.postings.values().forEach(Postings::trim);
+        if (current.entries.length > current.slotCount) {
+            current.entries = Arrays.copyOf(current.entries, Math.max(current.slotCount, 16));
+        }
+    }
+
+    private static Entry entryOf(Data data, long id) {
+        int slot = data.slotsById.get(id);
+        if (slot < 0) return null;
+        Entry[] entries = data.entries;
+        Entry entry = slot < entries.length ? entries[slot] : null;
+        return entry != null && entry.id() == id ? entry : null;
+    }
+
+    /**
+     * Returns the indexed text of an entity.
+     *
+     * @param id The ID of the entity.
+     * @return The text, or null when the entity is not indexed.
+     */
+    public String get(long id) {
+        Entry entry = entryOf(data, id);
+        return entry == null ? null : entry.text();
+    }
+
+    /** Returns the number of indexed texts. */
+    public int size() {
+        return data.size;
+    }
+
+    /**
+     * Returns the best indexed texts containing the query, ignoring case.
+     *
+     * Exact matches rank above prefix matches, which rank above matches at the start of
+     * another word, which rank above other substring matches.
+     *
+     * @param query The text to look for, at least {@link #MIN_QUERY_LENGTH} characters long.
+     * @param limit The maximum number of matches returned.
+     * @return The matches ordered by {@link #RANKING}.
+     * @throws IllegalArgumentException If the query is too short.
+     */
+    public List<Match> search(String query, int limit) {
+        if (!isSearchable(query)) {
+            throw new IllegalArgumentException("Query must be at least " + MIN_QUERY_LENGTH + " characters");
+        }
+        if (limit <= 0) return List.of();
+        String normalized = normalize(query);
+        Data current = data;
+
+        Set<String> grams = grams(normalized);
+        int[][] lists = new int[grams.size()][];
+        int[] sizes = new int[grams.size()];
+        int n = 0;
+        for (String gram : grams) {
+            Postings postings = current.postings.get(gram);
+            if (postings == null) return List.of();
+            sizes[n] = postings.size;
+            lists[n] = postings.slots;
+            n++;
+        }
+        sortBySize(lists, sizes);
+        // The rarest grams narrow the candidates down the most; intersecting the common
+        // ones as well costs more than checking the few extra candidates they would remove
+        n = Math.min(n, MAX_INTERSECTED_GRAMS);
+        // Read after the postings, so that every slot they hold is within the array
+        Entry[] entries = current.entries;
+
+        PriorityQueue<Match> best = new PriorityQueue<>(Math.min(limit, 64) + 1, WORST_FIRST);
+        // Leapfrog intersection: every list in turn seeks the current candidate, and a list
+        // that has no such slot moves the candidate to its next slot, skipping the others ahead
+        int[] positions = new int[n];
+        int candidate = sizes[0] > 0 ? lists[0][0] : -1;
+        int agreeing = 1;
+        int checked = 0;
+        for (int l = 1 % n; candidate >= 0; l = (l + 1) % n) {
+            if (agreeing == n) {
+                Entry entry = candidate < entries.length ? entries[candidate] : null;
+                if (entry != null) {
+                    offer(best, limit, entry, score(entry.normalized(), normalized));
+                    if (++checked == maxCandidates) break;
+                }
+                candidate++;
+                agreeing = 0;
+            }
+            int at = seek(lists[l], positions[l], sizes[l], candidate);
+            positions[l] = at;
+            if (at == sizes[l]) break;
+            if (lists[l][at] == candidate) {
+                agreeing++;
+            } else {
+                candidate = lists[l][at];
+                agreeing = 1;
+            }
+        }
+        List<Match> matches = new ArrayList<>(best);
+        matches.sort(RANKING);
+        return matches;
+    }
+
+    /** Keeps a match if it is among the best {@code limit} found so far. */
+    private static void offer(PriorityQueue<Match> best, int limit, Entry entry, int score) {
+        if (score == 0) return;
+        if (best.size() == limit && score < best.peek().score()) return;
+        Match match = new Match(entry.id(), entry.text(), score);
+        if (best.size() < limit) {
+            best.add(match);
+        } else if (RANKING.compare(match, best.peek()) < 0) {
+            best.poll();
+            best.add(match);
+        }
+    }
+
+    /** Orders the postings by size, smallest first. */
+    private static void sortBySize(int[][] lists, int[] sizes) {
+        for (int i = 1; i < sizes.length; i++) {
+            for (int j = i; j > 0 && sizes[j] < sizes[j - 1]; j--) {
+                int size = sizes[j];
+                sizes[j] = sizes[j - 1];
+                sizes[j - 1] = size;
+                int[] list = lists[j];
+                lists[j] = lists[j - 1];
+                lists[j - 1] = list;
+            }
+        }
+    }
+
+    /** Returns the first position at or after {@code from} holding a slot not below {@code slot}, galloping ahead. */
+    private static int seek(int[] list, int from, int size, int slot) {
+        int step = 1;
+        int high = from;
+        while (high < size && list[high] < slot) {
+            from = high + 1;
+            high += step;
+            step <<= 1;
+        }
+        int low = from;
+        high = Math.min(high, size);
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (list[mid] < slot) low = mid + 1;
+            else high = mid;
+        }
+        return low;
+    }
+
+    static int score(String text, String query) {
+        int at = text.indexOf(query);
+        if (at < 0) return 0;
+        if (text.length() == query.length()) return SCORE_EXACT;
+        if (at == 0) return SCORE_PREFIX;
+        for (; at > 0; at = text.indexOf(query, at + 1)) {
+            if (!Character.isLetterOrDigit(text.charAt(at - 1))) return SCORE_WORD_PREFIX;
+        }
+        return SCORE_SUBSTRING;
+    }
+
+    static String normalize(String text) {
+        return text.strip().toLowerCase(Locale.ROOT);
+    }
+
+    private static Set<String> grams(String normalized) {
+        Set<String> grams = new LinkedHashSet<>();
+        for (int i = 0; i + GRAM_LENGTH <= normalized.length(); i++) {
+            grams.add(normalized.substring(i, i + GRAM_LENGTH));
+        }
+        return grams;
+    }
+}
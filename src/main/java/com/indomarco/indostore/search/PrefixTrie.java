@@ -0,0 +1,530 @@
+package com.indomarco.indostore.search;
+
+import com.indomarco.indostore.cache.LongObjectMap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory prefix trie answering "which names have a word starting with what the user
+ * has typed so far".
+ *
+ * Every name is inserted once for each of its distinct words, lower-cased, keyed by the
+ * word alone: the trie holds the vocabulary of the names, and names sharing a word share
+ * its nodes. Each node keeps the best {@code topK} entries of its own, and the best
+ * {@code topK} of itself and all nodes below it; a node without entries of its own and
+ * with a single child shares the list of that child. A one-word lookup only walks the
+ * characters of the prefix and copies that list, whatever the number of names below it.
+ *
+ * A prefix of several words, or longer than the {@link #MAX_KEY_LENGTH} characters keys
+ * are cut at, is answered by checking names for the whole prefix: first the best names
+ * holding its first word, which usually settles the lookup, then up to
+ * {@link #MAX_SCANNED_ENTRIES} names holding its rarest word.
+ *
+ * Lookups share a read lock, writes take the write lock. A write touches the nodes of the
+ * words of one name, and stops updating the lists on the way up as soon as one is unchanged.
+ */
+public class PrefixTrie {
+    static final int MAX_KEY_LENGTH = 32;
+
+    /** The most entries checked for a prefix of several words, or longer than the longest key. */
+    static final int MAX_SCANNED_ENTRIES = 20_000;
+
+    /**
+     * A suggestion returned by the trie.
+     *
+     * @param type The kind of entity: {@code province}, {@code branch} or {@code store}.
+     * @param id The ID of the entity.
+     * @param name The name of the entity, as given.
+     */
+    public record Suggestion(String type, long id, String name) {}
+
+    /** A suggestion stored under one of its words. */
+    private static final class Entry {
+        final Suggestion suggestion;
+        /** The whole name, normalized; shared by the entries of one name. */
+        final String normalized;
+        /** Where the word starts in the name. */
+        final int start;
+        /** The position of the entry in the entries of its node. */
+        int index;
+
+        Entry(Suggestion suggestion, String normalized, int start) {
+            this.suggestion = suggestion;
+            this.normalized = normalized;
+            this.start = start;
+        }
+
+        int depth() {
+            int end = normalized.indexOf(' ', start);
+            return Math.min((end < 0 ? normalized.length() : end) - start, MAX_KEY_LENGTH);
+        }
+    }
+
+    /** A suggestion found by checking entries, and whether the prefix starts its name. */
+    private record Match(Suggestion suggestion, boolean atStart) {}
+
+    /**
+     * Orders names starting with the prefix before names with a later word starting with
+     * it, then shorter names first, then provinces, branches and stores.
+     */
+    private static final Comparator<Match> RANKING = Comparator
+            .comparing((Match m) -> !m.atStart())
+            .thenComparingInt(m -> m.suggestion().name().length())
+            .thenComparingInt(m -> typeOrder(m.suggestion().type()))
+            .thenComparingLong(m -> m.suggestion().id());
+
+    private static final Comparator<Entry> ENTRY_RANKING = Comparator
+            .comparing((Entry e) -> e.start != 0)
+            .thenComparingInt(e -> e.suggestion.name().length())
+            .thenComparingInt(e -> typeOrder(e.suggestion.type()))
+            .thenComparingLong(e -> e.suggestion.id());
+
+    private static final char[] NO_KEYS = new char[0];
+    private static final Node[] NO_NODES = new Node[0];
+    private static final Entry[] NO_ENTRIES = new Entry[0];
+
+    private static final class Node {
+        char[] keys = NO_KEYS;
+        Node[] children = NO_NODES;
+        /** Entries whose key ends here, or is cut here, in no particular order. */
+        Entry[] entries = NO_ENTRIES;
+        int entryCount;
+        /**
+         * The best of the node's own entries, best first: at least {@code topK} of them
+         * while the node has that many, and more on nodes with many entries, so that
+         * removing the best entries seldom means checking all of them again.
+         */
+        Entry[] best = NO_ENTRIES;
+        /** The first {@code topK} of {@link #best}. */
+        Entry[] ownTop = NO_ENTRIES;
+        /** The best entries of this node and all nodes below it; never changed in place, as it may be shared. */
+        Entry[] top = NO_ENTRIES;
+
+        Node child(char c) {
+            int i = Arrays.binarySearch(keys, c);
+            return i < 0 ? null : children[i];
+        }
+
+        Node addChild(char c) {
+            int i = Arrays.binarySearch(keys, c);
+            if (i >= 0) return children[i];
+            int at = -i - 1;
+            Node node = new Node();
+            keys = insert(keys, at, c);
+            Node[] grown = new Node[children.length + 1];
+            System.arraycopy(children, 0, grown, 0, at);
+            grown[at] = node;
+            System.arraycopy(children, at, grown, at + 1, children.length - at);
+            children = grown;
+            return node;
+        }
+
+        void removeChild(char c) {
+            int at = Arrays.binarySearch(keys, c);
+            if (at < 0) return;
+            char[] shrunkKeys = new char[keys.length - 1];
+            System.arraycopy(keys, 0, shrunkKeys, 0, at);
+            System.arraycopy(keys, at + 1, shrunkKeys, at, keys.length - at - 1);
+            Node[] shrunk = new Node[children.length - 1];
+            System.arraycopy(children, 0, shrunk, 0, at);
+            System.arraycopy(children, at + 1, shrunk, at, children.length - at - 1);
+            keys = shrunkKeys;
+            children = shrunk;
+        }
+
+        void add(Entry entry) {
+            if (entryCount == entries.length) entries = Arrays.copyOf(entries, Math.max(2, entryCount * 2));
+            entry.index = entryCount;
+            entries[entryCount++] = entry;
+        }
+
+        void delete(Entry entry) {
+            int last = --entryCount;
+            Entry moved = entries[last];
+            entries[entry.index] = moved;
+            moved.index = entry.index;
+            entries[last] = null;
+            if (entryCount == 0) entries = NO_ENTRIES;
+            else if (entryCount * 4 < entries.length) entries = Arrays.copyOf(entries, entries.length / 2);
+        }
+
+        boolean isEmpty() {
+            return entryCount == 0 && children.length == 0;
+        }
+
+        private static char[] insert(char[] array, int at, char c) {
+            char[] grown = new char[array.length + 1];
+            System.arraycopy(array, 0, grown, 0, at);
+            grown[at] = c;
+            System.arraycopy(array, at, grown, at + 1, array.length - at);
+            return grown;
+        }
+    }
+
+    private final int topK;
+    private final Node root = new Node();
+    private final Map<String, LongObjectMap<Entry[]>> entriesByType = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Constructor for PrefixTrie.
+     *
+     * @param topK The number of suggestions kept per node, and so the largest number a lookup returns.
+     */
+    public PrefixTrie(int topK) {
+        this.topK = topK;
+    }
+
+    /** Returns the largest number of suggestions a lookup returns. */
+    public int getTopK() {
+        return topK;
+    }
+
+    /**
+     * Adds a name to the trie, replacing the name previously added for the same entity.
+     *
+     * @param type The kind of entity.
+     * @param id The ID of the entity.
+     * @param name The name to add; a null or blank name removes the entity instead.
+     */
+    public void put(String type, long id, String name) {
+        lock.writeLock().lock();
+        try {
+            removeEntity(type, id);
+            for (Entry entry : entries(new Suggestion(type, id, name))) {
+                insert(entry, true);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds many names at once, replacing the names previously added for the same entities.
+     *
+     * Cheaper than calling {@link #put(String, long, String)} for each of them, because
+     * the suggestion lists are computed once, after every name has been inserted.
+     *
+     * @param suggestions The entities and names to add.
+     */
+    public void putAll(List<Suggestion> suggestions) {
+        lock.writeLock().lock();
+        try {
+            for (Suggestion suggestion : suggestions) {
+                removeEntity(suggestion.type(), suggestion.id());
+                for (Entry entry : entries(suggestion)) {
+                    insert(entry, false);
+                }
+            }
+            recomputeTops(root);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Creates the entries of a name, one per distinct word, and records them for its entity. */
+    private Entry[] entries(Suggestion suggestion) {
+        if (suggestion.name() == null || suggestion.name().isBlank()) return NO_ENTRIES;
+        String normalized = normalize(suggestion.name());
+        List<Entry> entries = new ArrayList<>();
+        Set<String> keys = new HashSet<>();
+        for (int start = 0; start < normalized.length(); start++) {
+            if (!isWordStart(normalized, start)) continue;
+            Entry entry = new Entry(suggestion, normalized, start);
+            if (keys.add(normalized.substring(start, start + entry.depth()))) entries.add(entry);
+        }
+        Entry[] array = entries.toArray(NO_ENTRIES);
+        entriesByType.computeIfAbsent(suggestion.type(), type -> new LongObjectMap<>()).put(suggestion.id(), array);
+        return array;
+    }
+
+    /**
+     * Removes an entity from the trie.
+     *
+     * @param type The kind of entity.
+     * @param id The ID of the entity.
+     */
+    public void remove(String type, long id) {
+        lock.writeLock().lock();
+        try {
+            removeEntity(type, id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Returns the number of entities in the trie. */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return entriesByType.values().stream().mapToInt(LongObjectMap::size).sum();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the best suggestions whose name has a word starting with the prefix, ignoring case.
+     *
+     * @param prefix The text typed so far.
+     * @param limit The maximum number of suggestions, capped at {@link #getTopK()}.
+     * @return The suggestions, best first; empty for a blank prefix.
+     */
+    public List<Suggestion> suggest(String prefix, int limit) {
+        String normalized = prefix == null ? "" : normalize(prefix);
+        limit = Math.min(limit, topK);
+        if (normalized.isEmpty() || limit < 1) return List.of();
+
+        lock.readLock().lock();
+        try {
+            boolean phrase = normalized.indexOf(' ') >= 0;
+            Node node = walk(normalized, 0, phrase ? normalized.indexOf(' ') : normalized.length());
+            if (node == null) return List.of();
+            if (phrase) return suggestPhrase(node, normalized, limit);
+            if (normalized.length() > MAX_KEY_LENGTH) return scan(node, node, normalized, limit);
+            List<Suggestion> suggestions = new ArrayList<>(limit);
+            for (Entry entry : node.top) {
+                if (suggestions.size() == limit) break;
+                suggestions.add(entry.suggestion);
+            }
+            return suggestions;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Looks a prefix of several words up, given the node of its first word. */
+    private List<Suggestion> suggestPhrase(Node first, String prefix, int limit) {
+        Node rarest = first;
+        int start = prefix.indexOf(' ') + 1;
+        for (int end = prefix.indexOf(' ', start); end >= 0; start = end + 1, end = prefix.indexOf(' ', start)) {
+            // A later word only has its own entry when it starts like a word of a name does
+            if (!Character.isLetterOrDigit(prefix.charAt(start))) continue;
+            Node node = walk(prefix, start, end);
+            if (node == null) return List.of();
+            if (node.entryCount < rarest.entryCount) rarest = node;
+        }
+        return scan(first, rarest, prefix, limit);
+    }
+
+    /**
+     * Checks names for the prefix at one of their word starts.
+     *
+     * The best entries of the node of the first word of the prefix are checked first, in
+     * order: a name ranks no better than its entry there, so the lookup ends as soon as
+     * enough names are found before an entry ranking below them. Otherwise the entries of
+     * the node of the rarest word of the prefix are checked too.
+     */
+    private List<Suggestion> scan(Node first, Node rarest, String prefix, int limit) {
+        PriorityQueue<Match> best = new PriorityQueue<>(limit + 1, RANKING.reversed());
+        Set<Suggestion> found = new HashSet<>();
+        for (Entry entry : first.best) {
+            if (best.size() == limit && RANKING.compare(best.peek(), new Match(entry.suggestion, entry.start == 0)) <= 0) {
+                return sorted(best);
+            }
+            collect(entry, prefix, limit, best, found);
+        }
+        if (first.best.length < first.entryCount) {
+            int scanned = Math.min(rarest.entryCount, MAX_SCANNED_ENTRIES);
+            for (int i = 0; i < scanned; i++) {
+                collect(rarest.entries[i], prefix, limit, best, found);
+            }
+        }
+        return sorted(best);
+    }
+
+    private static void collect(Entry entry, String prefix, int limit, PriorityQueue<Match> best, Set<Suggestion> found) {
+        int at = firstMatch(entry.normalized, prefix);
+        if (at < 0 || !found.add(entry.suggestion)) return;
+        best.add(new Match(entry.suggestion, at == 0));
+        if (best.size() > limit) best.poll();
+    }
+
+    private static List<Suggestion> sorted(PriorityQueue<Match> best) {
+        List<Match> matches = new ArrayList<>(best);
+        matches.sort(RANKING);
+        return matches.stream().map(Match::suggestion).toList();
+    }
+
+    /** Returns the first word start of the name holding the prefix, or -1. */
+    private static int firstMatch(String normalized, String prefix) {
+        for (int at = normalized.indexOf(prefix); at >= 0; at = normalized.indexOf(prefix, at + 1)) {
+            if (isWordStart(normalized, at)) return at;
+        }
+        return -1;
+    }
+
+    /** Returns the node of the key made of the given characters of the text, or null. */
+    private Node walk(String text, int from, int to) {
+        Node node = root;
+        int end = Math.min(to, from + MAX_KEY_LENGTH);
+        for (int i = from; i < end && node != null; i++) {
+            node = node.child(text.charAt(i));
+        }
+        return node;
+    }
+
+    private void insert(Entry entry, boolean updateTops) {
+        int depth = entry.depth();
+        Node[] path = new Node[depth + 1];
+        path[0] = root;
+        for (int i = 0; i < depth; i++) {
+            path[i + 1] = path[i].addChild(entry.normalized.charAt(entry.start + i));
+        }
+        Node leaf = path[depth];
+        boolean holdsAll = leaf.best.length == leaf.entryCount;
+        leaf.add(entry);
+        if (!updateTops) return;
+
+        Entry[] best = leaf.best;
+        int at = 0;
+        while (at < best.length && ENTRY_RANKING.compare(best[at], entry) < 0) at++;
+        // The best entries stay the best of the node: a worse entry only joins them when they are all of it
+        if (at == best.length && !(holdsAll && best.length < reserve(leaf.entryCount))) return;
+        Entry[] grown = new Entry[Math.min(best.length + 1, Math.max(best.length, reserve(leaf.entryCount)))];
+        System.arraycopy(best, 0, grown, 0, at);
+        grown[at] = entry;
+        System.arraycopy(best, at, grown, at + 1, grown.length - at - 1);
+        setBest(leaf, grown);
+        for (int i = depth; i >= 0; i--) {
+            if (!recomputeTop(path[i])) break;
+        }
+    }
+
+    private void removeEntity(String type, long id) {
+        LongObjectMap<Entry[]> entities = entriesByType.get(type);
+        Entry[] previous = entities == null ? null : entities.get(id);
+        if (previous == null) return;
+        entities.remove(id);
+        for (Entry entry : previous) {
+            delete(entry);
+        }
+    }
+
+    private void delete(Entry entry) {
+        int depth = entry.depth();
+        Node[] path = new Node[depth + 1];
+        path[0] = root;
+        for (int i = 0; i < depth; i++) {
+            path[i + 1] = path[i].child(entry.normalized.charAt(entry.start + i));
+            if (path[i + 1] == null) return;
+        }
+        Node leaf = path[depth];
+        leaf.delete(entry);
+
+        int at = Arrays.asList(leaf.best).indexOf(entry);
+        if (at >= 0) {
+            Entry[] best = leaf.best;
+            if (best.length - 1 < topK && leaf.entryCount > best.length - 1) {
+                best = best(leaf.entries, leaf.entryCount, reserve(leaf.entryCount));
+            } else {
+                Entry[] shrunk = new Entry[best.length - 1];
+                System.arraycopy(best, 0, shrunk, 0, at);
+                System.arraycopy(best, at + 1, shrunk, at, best.length - at - 1);
+                best = shrunk;
+            }
+            setBest(leaf, best);
+        }
+        boolean changed = true;
+        for (int i = depth; i >= 0 && changed; i--) {
+            if (i > 0 && path[i].isEmpty()) {
+                path[i - 1].removeChild(entry.normalized.charAt(entry.start + i - 1));
+            } else {
+                changed = recomputeTop(path[i]);
+            }
+        }
+    }
+
+    private void recomputeTops(Node node) {
+        for (Node child : node.children) {
+            recomputeTops(child);
+        }
+        setBest(node, best(node.entries, node.entryCount, reserve(node.entryCount)));
+        recomputeTop(node);
+    }
+
+    /**
+     * Returns how many best entries a node with the given number of entries keeps: a
+     * node keeping a 64th of its entries checks them all again at most once every so
+     * many removals of its best ones.
+     */
+    private int reserve(int entryCount) {
+        return Math.max(topK, Math.min(entryCount >> 6, 1024));
+    }
+
+    private void setBest(Node node, Entry[] best) {
+        node.best = best;
+        Entry[] ownTop = best.length <= topK ? best : Arrays.copyOf(best, topK);
+        if (!Arrays.equals(ownTop, node.ownTop)) node.ownTop = ownTop;
+    }
+
+    /** Returns the best {@code limit} of the first {@code count} entries, best first. */
+    private static Entry[] best(Entry[] entries, int count, int limit) {
+        PriorityQueue<Entry> best = new PriorityQueue<>(limit + 1, ENTRY_RANKING.reversed());
+        for (int i = 0; i < count; i++) {
+            best.add(entries[i]);
+            if (best.size() > limit) best.poll();
+        }
+        Entry[] top = best.toArray(NO_ENTRIES);
+        Arrays.sort(top, ENTRY_RANKING);
+        return top;
+    }
+
+    /**
+     * Merges the node's own best entries with the best entries of its children, keeping one
+     * entry per name.
+     *
+     * @return Whether the list of the node changed.
+     */
+    private boolean recomputeTop(Node node) {
+        Entry[] top;
+        if (node.entryCount == 0 && node.children.length == 1) {
+            top = node.children[0].top;
+        } else if (node.children.length == 0) {
+            top = node.ownTop;
+        } else {
+            List<Entry> candidates = new ArrayList<>(Arrays.asList(node.ownTop));
+            for (Node child : node.children) {
+                candidates.addAll(Arrays.asList(child.top));
+            }
+            candidates.sort(ENTRY_RANKING);
+            List<Entry> distinct = new ArrayList<>(topK);
+            for (Entry candidate : candidates) {
+                if (distinct.size() == topK) break;
+                if (distinct.stream().noneMatch(e -> e.suggestion == candidate.suggestion)) distinct.add(candidate);
+            }
+            top = distinct.toArray(NO_ENTRIES);
+        }
+        if (Arrays.equals(top, node.top)) return false;
+        node.top = top;
+        return true;
+    }
+
+    private static boolean isWordStart(String normalized, int i) {
+        return i == 0 || Character.isLetterOrDigit(normalized.charAt(i))
+                && !Character.isLetterOrDigit(normalized.charAt(i - 1));
+    }
+
+    private static int typeOrder(String type) {
+        return switch (type) {
+            case "province" -> 0;
+            case "branch" -> 1;
+            default -> 2;
+        };
+    }
+
+    static String normalize(String text) {
+        return text.strip().toLowerCase(Locale.ROOT).replaceAll("\\s+", " ");
+    }
+}
@@ -0,0 +1,313 @@
+package com.indomarco.indostore.search;
+
+import com.indomarco.indostore.dto.BranchSummary;
+import com.indomarco.indostore.dto.ProvinceSummary;
+import com.indomarco.indostore.dto.SearchHit;
+import com.indomarco.indostore.dto.StoreExportRow;
+import com.indomarco.indostore.entity.Branch;
+import com.indomarco.indostore.entity.Province;
+import com.indomarco.indostore.entity.Store;
+import com.indomarco.indostore.repository.BranchRepository;
+import com.indomarco.indostore.repository.ProvinceRepository;
+import com.indomarco.indostore.repository.StoreRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.ToIntFunction;
+import java.util.stream.Stream;
+
+import static com.indomarco.indostore.utility.TransactionUtils.afterCommit;
+
+/**
+ * In-memory search index over the names of the active, not deleted provinces, branches
+ * and stores, and the addresses of the stores.
+ *
+ * Substring searches on these columns cannot use a database index, so they are answered
+ * from {@link NgramIndex trigram indexes} instead, and autocomplete suggestions for the
+ * names from a {@link PrefixTrie}. The indexes are loaded once the
+ * application is ready and then kept up to date by the services, which report every
+ * saved entity; the change is applied once its transaction commits. Changes committed
+ * while the indexes are loading are replayed on top of the loaded data.
+ *
+ * Searches need at least {@link NgramIndex#MIN_QUERY_LENGTH} characters and only keep
+ * the best {@code limit} hits of each index, so a search costs the same whatever the
+ * size of the catalogue; at most {@code indostore.search.max-candidates} candidates are
+ * checked per index.
+ *
+ * The number of indexed texts is published as the {@code indostore.search.index.size}
+ * metric tagged with the index name.
+ */
+@Component
+public class SearchIndex {
+    private static final Logger log = LoggerFactory.getLogger(SearchIndex.class);
+
+    private static final String PROVINCE = "province";
+    private static final String BRANCH = "branch";
+    private static final String STORE = "store";
+
+    /** Stores matched on their address rank below stores matched on their name. */
+    private static final int ADDRESS_PENALTY = 10;
+
+    /** The indexes of one load. */
+    private record Indexes(NgramIndex provinces, NgramIndex branches, NgramIndex storeNames,
+                           NgramIndex storeAddresses, PrefixTrie names) {
+        Indexes(int topK, int maxCandidates) {
+            this(new NgramIndex(maxCandidates), new NgramIndex(maxCandidates), new NgramIndex(maxCandidates),
+                    new NgramIndex(maxCandidates), new PrefixTrie(topK));
+        }
+    }
+
+    private final ProvinceRepository provinceRepository;
+    private final BranchRepository branchRepository;
+    private final StoreRepository storeRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final int topK;
+    private final int maxCandidates;
+
+    private volatile Indexes indexes;
+    private volatile boolean ready;
+
+    /** Changes committed while a load is running, or null when no load is running. */
+    private List<Consumer<Indexes>> pending;
+
+    /**
+     * Constructor for SearchIndex.
+     *
+     * @param provinceRepository The ProvinceRepository the provinces are loaded from.
+     * @param branchRepository The BranchRepository the branches are loaded from.
+     * @param storeRepository The StoreRepository the stores are streamed from.
+     * @param transactionManager The transaction manager used to keep the store cursor open while loading.
+     * @param topK The largest number of autocomplete suggestions returned for a prefix.
+     * @param maxCandidates The most candidates a search checks in each index.
+     * @param registry The MeterRegistry the index sizes are published to.
+     */
+    public SearchIndex(ProvinceRepository provinceRepository, BranchRepository branchRepository,
+                       StoreRepository storeRepository, PlatformTransactionManager transactionManager,
+                       @Value("${indostore.search.autocomplete.top-k:10}") int topK,
+                       @Value("${indostore.search.max-candidates:2000}") int maxCandidates,
+                       MeterRegistry registry) {
+        this.provinceRepository = provinceRepository;
+        this.branchRepository = branchRepository;
+        this.storeRepository = storeRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.topK = topK;
+        this.maxCandidates = maxCandidates;
+        this.indexes = new Indexes(topK, maxCandidates);
+        registerSize(registry, "provinces", current -> current.provinces().size());
+        registerSize(registry, "branches", current -> current.branches().size());
+        registerSize(registry, "store-names", current -> current.storeNames().size());
+        registerSize(registry, "store-addresses", current -> current.storeAddresses().size());
+        registerSize(registry, "autocomplete", current -> current.names().size());
+    }
+
+    private void registerSize(MeterRegistry registry, String name, ToIntFunction<Indexes> size) {
+        Gauge.builder("indostore.search.index.size", this, search -> size.applyAsInt(search.indexes))
+                .description("Number of texts held by the search index")
+                .tag("index", name)
+                .register(registry);
+    }
+
+    /**
+     * Loads the indexes from the database, replacing their current content.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        long start = System.nanoTime();
+        synchronized (this) {
+            pending = new ArrayList<>();
+        }
+        Indexes loaded = new Indexes(topK, maxCandidates);
+        List<PrefixTrie.Suggestion> names = new ArrayList<>();
+        try {
+            for (ProvinceSummary province : provinceRepository.findActiveSummaries(Pageable.unpaged())) {
+                loaded.provinces().put(province.id(), province.name());
+                names.add(new PrefixTrie.Suggestion(PROVINCE, province.id(), province.name()));
+            }
+            for (BranchSummary branch : branchRepository.findActiveSummaries(Pageable.unpaged())) {
+                loaded.branches().put(branch.id(), branch.name());
+                names.add(new PrefixTrie.Suggestion(BRANCH, branch.id(), branch.name()));
+            }
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try (Stream<StoreExportRow> rows = storeRepository.streamExportRows()) {
+                    rows.filter(row -> Boolean.TRUE.equals(row.isActive())).forEach(row -> {
+                        loaded.storeNames().put(row.id(), row.name());
+                        loaded.storeAddresses().put(row.id(), row.address());
+                        names.add(new PrefixTrie.Suggestion(STORE, row.id(), row.name()));
+                    });
+                }
+            });
+            loaded.names().putAll(names);
+            loaded.storeNames().trimToSize();
+            loaded.storeAddresses().trimToSize();
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                pending = null;
+            }
+            throw e;
+        }
+        synchronized (this) {
+            pending.forEach(change -> change.accept(loaded));
+            pending = null;
+            indexes = loaded;
+            ready = true;
+        }
+        log.info("Loaded search index with {} provinces, {} branches and {} stores in {} ms",
+                loaded.provinces().size(), loaded.branches().size(), loaded.storeNames().size(),
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /** Returns whether the indexes have been loaded and can serve searches. */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Indexes a saved province once the current transaction commits, or removes it
+     * when it is inactive or deleted.
+     *
+     * @param province The saved province.
+     */
+    public void provinceSaved(Province province) {
+        long id = province.getId();
+        String name = isListed(province.getIsActive(), province.getIsDeleted()) ? province.getName() : null;
+        apply(indexes -> {
+            indexes.provinces().put(id, name);
+            indexes.names().put(PROVINCE, id, name);
+        });
+    }
+
+    /**
+     * Indexes a saved branch once the current transaction commits, or removes it
+     * when it is inactive or deleted.
+     *
+     * @param branch The saved branch.
+     */
+    public void branchSaved(Branch branch) {
+        long id = branch.getId();
+        String name = isListed(branch.getIsActive(), branch.getIsDeleted()) ? branch.getName() : null;
+        apply(indexes -> {
+            indexes.branches().put(id, name);
+            indexes.names().put(BRANCH, id, name);
+        });
+    }
+
+    /**
+     * Indexes a saved store once the current transaction commits, or removes it
+     * when it is inactive or deleted.
+     *
+     * @param store The saved store.
+     */
+    public void storeSaved(Store store) {
+        long id = store.getId();
+        boolean listed = isListed(store.getIsActive(), store.getIsDeleted());
+        String name = listed ? store.getName() : null;
+        String address = listed ? store.getAddress() : null;
+        apply(indexes -> {
+            indexes.storeNames().put(id, name);
+            indexes.storeAddresses().put(id, address);
+            indexes.names().put(STORE, id, name);
+        });
+    }
+
+    private static boolean isListed(Boolean isActive, Boolean isDeleted) {
+        return Boolean.TRUE.equals(isActive) && !Boolean.TRUE.equals(isDeleted);
+    }
+
+    private void apply(Consumer<Indexes> change) {
+        afterCommit(() -> {
+            synchronized (this) {
+                change.accept(indexes);
+                if (pending != null) pending.add(change);
+            }
+        });
+    }
+
+    /**
+     * Returns the IDs of the active, not deleted provinces whose name contains the query,
+     * ignoring case, best matches first.
+     *
+     * @param query The text to look for, at least {@link NgramIndex#MIN_QUERY_LENGTH} characters long.
+     * @return The matching province IDs.
+     */
+    public List<Long> searchProvinceIds(String query) {
+        NgramIndex provinces = indexes.provinces();
+        return provinces.search(query, provinces.size()).stream().map(NgramIndex.Match::id).toList();
+    }
+
+    /**
+     * Searches the active, not deleted provinces, branches and stores, best matches first.
+     *
+     * Stores match on their name or their address. Each index contributes at most
+     * {@code limit} hits, so among stores matched on their address with the same score,
+     * the ones kept are those the address index ranks first.
+     *
+     * @param query The text to look for, at least {@link NgramIndex#MIN_QUERY_LENGTH} characters long.
+     * @param limit The maximum number of hits returned.
+     * @return The best hits of all entity types.
+     * @throws IllegalArgumentException If the query is too short.
+     */
+    public List<SearchHit> search(String query, int limit) {
+        Indexes current = indexes;
+        List<SearchHit> hits = new ArrayList<>();
+        for (NgramIndex.Match match : current.provinces().search(query, limit)) {
+            hits.add(new SearchHit(PROVINCE, match.id(), match.text(), null, match.score()));
+        }
+        for (NgramIndex.Match match : current.branches().search(query, limit)) {
+            hits.add(new SearchHit(BRANCH, match.id(), match.text(), null, match.score()));
+        }
+
+        Map<Long, SearchHit> stores = new HashMap<>();
+        for (NgramIndex.Match match : current.storeNames().search(query, limit)) {
+            stores.put(match.id(), new SearchHit(STORE, match.id(), match.text(),
+                    current.storeAddresses().get(match.id()), match.score()));
+        }
+        for (NgramIndex.Match match : current.storeAddresses().search(query, limit)) {
+            int score = match.score() - ADDRESS_PENALTY;
+            SearchHit byName = stores.get(match.id());
+            if (byName == null || byName.score() < score) {
+                String name = current.storeNames().get(match.id());
+                if (name != null) stores.put(match.id(), new SearchHit(STORE, match.id(), name, match.text(), score));
+            }
+        }
+        hits.addAll(stores.values());
+
+        hits.sort(Comparator.comparingInt(SearchHit::score).reversed()
+                .thenComparingInt(hit -> hit.name().length())
+                .thenComparing(SearchHit::type)
+                .thenComparingLong(SearchHit::id));
+        return hits.size() > limit ? List.copyOf(hits.subList(0, limit)) : hits;
+    }
+
+    /**
+     * Returns the active, not deleted provinces, branches and stores with a name that has
+     * a word starting with the prefix, ignoring case, best first.
+     *
+     * @param prefix The text typed so far.
+     * @param limit The maximum number of suggestions, capped at {@code indostore.search.autocomplete.top-k}.
+     * @return The suggestions.
+     */
+    public List<PrefixTrie.Suggestion> suggest(String prefix, int limit) {
+        return indexes.names().suggest(prefix, limit);
+    }
+
+    /** Returns the largest number of suggestions {@link #suggest(String, int)} returns. */
+    public int getTopK() {
+        return topK;
+    }
+}
@@ -0,0 +1,347 @@
+package com.indomarco.indostore.service;
+
+import com.indomarco.indostore.entity.AuditLog;
+import com.indomarco.indostore.entity.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only local journal of audit log entries, used with {@code indostore.audit.mode=journal}.
+ *
+ * Entries are appended as binary records to a memory-mapped segment file of
+ * {@code indostore.audit.journal.segment-size} in {@code indostore.audit.journal.dir}.
+ * Each record is its payload length, the CRC32C of its payload, and the payload: the
+ * timestamp, record ID and user ID followed by the table name, action and old and new
+ * values as length-prefixed UTF-8. A zero length marks the end of the records of a segment.
+ *
+ * {@link #append(AuditLog)} returns once the record is on disk. Appenders copy their
+ * record into the mapping under a short lock and then fsync as a group: whichever
+ * appender gets to sync first forces everything appended since the previous sync,
+ * and those that appended meanwhile find their record already durable. Only the pages
+ * of that range are forced, not the whole mapping of the segment.
+ *
+ * When a record does not fit, or when {@link #rotate()} is called, the segment is forced
+ * and sealed and a new one is started. Sealed segments, including every segment left over
+ * from a previous run, are loaded into {@code audit_log} by {@link AuditJournalLoader}.
+ */
+@Component
+public class AuditJournal implements SmartLifecycle {
+    private static final Logger log = LoggerFactory.getLogger(AuditJournal.class);
+    private static final String PREFIX = "audit-";
+    private static final String SUFFIX = ".journal";
+    private static final int HEADER = 2 * Integer.BYTES;
+    private static final LocalDateTime EPOCH = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private final Path dir;
+    private final int segmentSize;
+    private final boolean enabled;
+    private final Object appendLock = new Object();
+    private final Object syncLock = new Object();
+
+    private volatile boolean running;
+    private volatile MappedByteBuffer active;
+    private volatile long activeSequence = -1;
+    private volatile long written;
+    private long durable;
+    private MappedByteBuffer forcedSegment;
+    private int forcedPosition;
+
+    /**
+     * Constructor for AuditJournal.
+     *
+     * @param dir The directory the segments are kept in.
+     * @param segmentSize The size of each segment file.
+     * @param mode The audit mode; segments are only appended to with {@code journal}.
+     */
+    public AuditJournal(@Value("${indostore.audit.journal.dir:audit-journal}") Path dir,
+                        @Value("${indostore.audit.journal.segment-size:16MB}") DataSize segmentSize,
+                        @Value("${indostore.audit.mode:async}") String mode) {
+        this.dir = dir;
+        this.segmentSize = Math.toIntExact(segmentSize.toBytes());
+        this.enabled = "journal".equalsIgnoreCase(mode.strip());
+    }
+
+    /**
+     * Appends an entry to the journal and waits until it is on disk.
+     *
+     * @param entry The audit log entry to append.
+     * @throws IllegalStateException If the journal is not open.
+     * @throws UncheckedIOException If a new segment cannot be created.
+     */
+    public void append(AuditLog entry) {
+        ByteBuffer record = encode(entry);
+        if (record.remaining() + HEADER > segmentSize) {
+            throw new IllegalArgumentException("Audit log entry of " + record.remaining()
+                    + " bytes does not fit in a journal segment");
+        }
+        long end;
+        synchronized (appendLock) {
+            if (!running || !enabled) throw new IllegalStateException("Audit journal is not open");
+            // Keep room for the zero length that ends the segment
+            if (active == null || active.remaining() < record.remaining() + Integer.BYTES) startSegment();
+            active.put(record);
+            written += record.limit();
+            end = written;
+        }
+        sync(end);
+    }
+
+    private void sync(long end) {
+        synchronized (syncLock) {
+            if (durable >= end) return;
+            long target;
+            MappedByteBuffer buffer;
+            int position;
+            synchronized (appendLock) {
+                target = written;
+                buffer = active;
+                position = buffer != null ? buffer.position() : 0;
+            }
+            if (buffer != null) {
+                // A rotation forced the whole of the previous segment, so a new one is forced from its start
+                int from = buffer == forcedSegment ? forcedPosition : 0;
+                if (position > from) buffer.force(from, position - from);
+                forcedSegment = buffer;
+                forcedPosition = position;
+            }
+            durable = target;
+        }
+    }
+
+    /**
+     * Seals the current segment, if anything was appended to it, so that it can be loaded.
+     */
+    public void rotate() {
+        synchronized (appendLock) {
+            if (active != null && active.position() > 0) startSegment();
+        }
+    }
+
+    private void startSegment() {
+        if (active != null) active.force();
+        // Claim the sequence before the file exists, so that the new segment is never listed as sealed
+        long sequence = activeSequence + 1;
+        activeSequence = sequence;
+        active = null;
+        Path file = segmentPath(sequence);
+        try (FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            active = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not create audit journal segment " + file, e);
+        }
+    }
+
+    /**
+     * Returns the segments that are no longer appended to, oldest first.
+     *
+     * @return The sealed segment files.
+     */
+    public List<Path> sealedSegments() {
+        if (!Files.isDirectory(dir)) return List.of();
+        try (Stream<Path> files = Files.list(dir)) {
+            long current = running && enabled ? activeSequence : Long.MAX_VALUE;
+            return files.filter(file -> isSegment(file) && sequenceOf(file) < current)
+                    .sorted()
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not list audit journal segments in " + dir, e);
+        }
+    }
+
+    /**
+     * Reads the records of a segment, starting at the given offset.
+     *
+     * Reading stops at the end marker, or at the first record whose checksum does not
+     * match, which is where a crash interrupted the last append.
+     *
+     * @param segment The segment file.
+     * @param offset The offset of the first record to read, as returned by {@link Reader#position()}.
+     * @return A reader over the records of the segment.
+     * @throws IOException If the segment cannot be read.
+     */
+    public static Reader read(Path segment, int offset) throws IOException {
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            buffer.position(offset);
+            return new Reader(segment, buffer);
+        }
+    }
+
+    /** Sequential reader over the records of one segment. */
+    public static class Reader {
+        private final Path segment;
+        private final ByteBuffer buffer;
+
+        private Reader(Path segment, ByteBuffer buffer) {
+            this.segment = segment;
+            this.buffer = buffer;
+        }
+
+        /**
+         * Returns the next entry of the segment.
+         *
+         * @return The entry, or null at the end of the segment.
+         */
+        public AuditLog next() {
+            if (buffer.remaining() < HEADER) return null;
+            int start = buffer.position();
+            int length = buffer.getInt();
+            int checksum = buffer.getInt();
+            if (length <= 0 || length > buffer.remaining()) {
+                buffer.position(start);
+                return null;
+            }
+            ByteBuffer payload = buffer.slice(buffer.position(), length);
+            CRC32C crc = new CRC32C();
+            crc.update(payload.duplicate());
+            if ((int) crc.getValue() != checksum) {
+                log.warn("Audit journal segment {} has a torn record at offset {}, ignoring the rest", segment, start);
+                buffer.position(start);
+                return null;
+            }
+            buffer.position(buffer.position() + length);
+            return decode(payload);
+        }
+
+        /** Returns the offset of the next record, to resume reading from. */
+        public int position() {
+            return buffer.position();
+        }
+    }
+
+    private static ByteBuffer encode(AuditLog entry) {
+        byte[] table = bytes(entry.getTableName());
+        byte[] action = bytes(entry.getAction());
+        byte[] oldValue = bytes(entry.getOldValue());
+        byte[] newValue = bytes(entry.getNewValue());
+        int length = 3 * Long.BYTES + 4 * Integer.BYTES
+                + size(table) + size(action) + size(oldValue) + size(newValue);
+        ByteBuffer record = ByteBuffer.allocate(HEADER + length);
+        record.putInt(length).putInt(0)
+                .putLong(ChronoUnit.MICROS.between(EPOCH, entry.getTimestamp()))
+                .putLong(entry.getRecordId() == null ? Long.MIN_VALUE : entry.getRecordId())
+                .putLong(entry.getUser().getId());
+        put(record, table);
+        put(record, action);
+        put(record, oldValue);
+        put(record, newValue);
+        CRC32C crc = new CRC32C();
+        crc.update(record.array(), HEADER, length);
+        record.putInt(Integer.BYTES, (int) crc.getValue());
+        return record.flip();
+    }
+
+    private static AuditLog decode(ByteBuffer payload) {
+        AuditLog entry = new AuditLog();
+        entry.setTimestamp(EPOCH.plus(payload.getLong(), ChronoUnit.MICROS));
+        long recordId = payload.getLong();
+        entry.setRecordId(recordId == Long.MIN_VALUE ? null : recordId);
+        User user = new User();
+        user.setId(payload.getLong());
+        entry.setUser(user);
+        entry.setTableName(string(payload));
+        entry.setAction(string(payload));
+        entry.setOldValue(string(payload));
+        entry.setNewValue(string(payload));
+        return entry;
+    }
+
+    private static byte[] bytes(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int size(byte[] value) {
+        return value == null ? 0 : value.length;
+    }
+
+    private static void put(ByteBuffer record, byte[] value) {
+        if (value == null) {
+            record.putInt(-1);
+        } else {
+            record.putInt(value.length).put(value);
+        }
+    }
+
+    private static String string(ByteBuffer payload) {
+        int length = payload.getInt();
+        if (length < 0) return null;
+        byte[] value = new byte[length];
+        payload.get(value);
+        return new String(value, StandardCharsets.UTF_8);
+    }
+
+    private Path segmentPath(long sequence) {
+        return dir.resolve(PREFIX + String.format("%016d", sequence) + SUFFIX);
+    }
+
+    private static boolean isSegment(Path file) {
+        String name = file.getFileName().toString();
+        return name.startsWith(PREFIX) && name.endsWith(SUFFIX);
+    }
+
+    private static long sequenceOf(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+    }
+
+    @Override
+    public void start() {
+        if (enabled) {
+            synchronized (appendLock) {
+                try {
+                    Files.createDirectories(dir);
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Could not create audit journal directory " + dir, e);
+                }
+                // Start after the segments left over from a previous run, which are loaded as sealed
+                List<Path> leftover = sealedSegments();
+                activeSequence = leftover.isEmpty() ? -1 : sequenceOf(leftover.get(leftover.size() - 1));
+                startSegment();
+                log.info("Opened audit journal segment {} with {} segments left to load", activeSequence, leftover.size());
+            }
+        }
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        synchronized (appendLock) {
+            if (active != null) {
+                active.force();
+                active = null;
+            }
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /** Starts before and stops after the web server, like {@link AuditLogWriter}. */
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+}
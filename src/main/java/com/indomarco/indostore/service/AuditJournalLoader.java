@@ -0,0 +1,191 @@
+package com.indomarco.indostore.service;
+
+import com.indomarco.indostore.entity.AuditLog;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loads the sealed segments of the {@link AuditJournal} into {@code audit_log}.
+ *
+ * Every {@code indostore.audit.journal.load-interval} the current segment is sealed, if
+ * anything was appended to it, and every sealed segment is read and saved with
+ * {@link AuditLogWriter#writeSkippingRejected(List)} in batches of
+ * {@code indostore.audit.batch-size}. A segment is deleted once all of its entries are
+ * saved. An entry the database rejects on its own is logged in full and skipped, so that
+ * it does not hold back the rest of the journal; when saving fails for any other reason,
+ * such as the database being down, loading stops and the next run resumes from the
+ * last batch saved.
+ *
+ * The offset reached in a segment is kept next to it in a {@code .loaded} file after each
+ * batch, so that the segments left over by a crash are replayed from where loading stopped;
+ * at most the batch being saved at the time of the crash is saved twice. The file is
+ * replaced by renaming a new one over it, so a crash leaves either the old offset or the
+ * new one; an offset that cannot be read anyway replays the segment from its start.
+ *
+ * Runs in every audit mode, so that segments left over from running with {@code journal}
+ * are still loaded after switching to another mode.
+ */
+@Component
+public class AuditJournalLoader implements SmartLifecycle {
+    private static final Logger log = LoggerFactory.getLogger(AuditJournalLoader.class);
+    private static final String CHECKPOINT_SUFFIX = ".loaded";
+    private static final String TEMPORARY_SUFFIX = ".tmp";
+
+    private final AuditJournal journal;
+    private final AuditLogWriter writer;
+    private final int batchSize;
+    private final Duration loadInterval;
+
+    private volatile boolean running;
+    private ScheduledExecutorService loader;
+
+    /**
+     * Constructor for AuditJournalLoader.
+     *
+     * @param journal The AuditJournal whose segments are loaded.
+     * @param writer The AuditLogWriter the entries are saved with.
+     * @param batchSize The maximum number of entries saved in one transaction.
+     * @param loadInterval How often the current segment is sealed and the sealed segments loaded.
+     * @param registry The MeterRegistry the number of segments waiting is published to.
+     */
+    public AuditJournalLoader(AuditJournal journal, AuditLogWriter writer,
+                              @Value("${indostore.audit.batch-size:100}") int batchSize,
+                              @Value("${indostore.audit.journal.load-interval:2s}") Duration loadInterval,
+                              MeterRegistry registry) {
+        this.journal = journal;
+        this.writer = writer;
+        this.batchSize = batchSize;
+        this.loadInterval = loadInterval;
+        Gauge.builder("indostore.audit.journal.segments", journal, j -> j.sealedSegments().size())
+                .description("Sealed audit journal segments waiting to be loaded")
+                .register(registry);
+    }
+
+    /**
+     * Seals the current segment and loads every sealed segment.
+     */
+    public synchronized void load() {
+        journal.rotate();
+        for (Path segment : journal.sealedSegments()) {
+            load(segment);
+        }
+    }
+
+    private void load(Path segment) {
+        Path checkpoint = segment.resolveSibling(segment.getFileName() + CHECKPOINT_SUFFIX);
+        long loaded = 0;
+        try {
+            int offset = readCheckpoint(segment, checkpoint);
+            AuditJournal.Reader reader = AuditJournal.read(segment, offset);
+            List<AuditLog> batch = new ArrayList<>(batchSize);
+            for (AuditLog entry = reader.next(); entry != null; entry = reader.next()) {
+                batch.add(entry);
+                if (batch.size() == batchSize) {
+                    writer.writeSkippingRejected(batch);
+                    loaded += batch.size();
+                    batch.clear();
+                    writeCheckpoint(checkpoint, reader.position());
+                }
+            }
+            writer.writeSkippingRejected(batch);
+            loaded += batch.size();
+            Files.delete(segment);
+            Files.deleteIfExists(checkpoint);
+            Files.deleteIfExists(temporary(checkpoint));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not load audit journal segment " + segment, e);
+        }
+        if (loaded > 0) log.info("Loaded {} audit log entries from {}", loaded, segment.getFileName());
+    }
+
+    /** Returns the offset loading of a segment stopped at, or 0 when it cannot be told. */
+    private static int readCheckpoint(Path segment, Path checkpoint) throws IOException {
+        if (!Files.exists(checkpoint)) return 0;
+        String content = Files.readString(checkpoint, StandardCharsets.US_ASCII).strip();
+        try {
+            int offset = Integer.parseInt(content);
+            if (offset >= 0 && offset <= Files.size(segment)) return offset;
+        } catch (NumberFormatException e) {
+            // Handled below like an offset out of the segment
+        }
+        log.warn("Ignoring unreadable checkpoint '{}' of audit journal segment {}, loading it from the start",
+                content, segment.getFileName());
+        return 0;
+    }
+
+    /** Replaces the checkpoint of a segment, so that it holds either the old or the new offset. */
+    private static void writeCheckpoint(Path checkpoint, int offset) throws IOException {
+        Path temporary = temporary(checkpoint);
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel.write(ByteBuffer.wrap(Integer.toString(offset).getBytes(StandardCharsets.US_ASCII)));
+            channel.force(false);
+        }
+        Files.move(temporary, checkpoint, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static Path temporary(Path checkpoint) {
+        return checkpoint.resolveSibling(checkpoint.getFileName() + TEMPORARY_SUFFIX);
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        loader = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "audit-journal-loader");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // The first run replays the segments left over from the previous run
+        loader.scheduleWithFixedDelay(() -> {
+            try {
+                load();
+            } catch (RuntimeException e) {
+                log.error("Failed to load the audit journal", e);
+            }
+        }, 0, loadInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        loader.shutdown();
+        try {
+            loader.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /** Starts after and stops before the {@link AuditJournal} it seals segments of. */
+    @Override
+    public int getPhase() {
+        return journal.getPhase() + 1;
+    }
+}
@@ -1,36 +1,161 @@
 package com.indomarco.indostore.service;
 
+import com.indomarco.indostore.dto.AuditLogEntry;
 import com.indomarco.indostore.entity.AuditLog;
 import com.indomarco.indostore.entity.User;
 import com.indomarco.indostore.repository.AuditLogRepository;
+import com.indomarco.indostore.utility.AuditDiff;
+import com.indomarco.indostore.utility.CursorPage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+import static com.indomarco.indostore.utility.PaginationUtils.checkPageSize;
+import static com.indomarco.indostore.utility.PaginationUtils.decodeCursorPair;
+import static com.indomarco.indostore.utility.PaginationUtils.encodeCursor;
+import static com.indomarco.indostore.utility.PaginationUtils.keysetPage;
+import static com.indomarco.indostore.utility.TransactionUtils.afterCommit;
 
 /**
  * Service class for managing audit logs in the Indostore system.
- * 
+ *
  * Provides functionality to create and save audit log entries whenever
  * a database record is created, updated, or deleted.
+ *
+ * With {@code indostore.audit.mode=async} (the default) entries are handed to
+ * {@link AuditLogWriter} once the surrounding transaction commits, so the mutation
+ * does not wait for the audit insert. With {@code journal} they are appended to the local
+ * {@link AuditJournal} once the transaction commits, and loaded into the database in bulk
+ * by {@link AuditJournalLoader}; an entry the journal cannot take is handed to
+ * {@link AuditLogWriter} instead. With {@code sync} they are saved inside the surrounding
+ * transaction.
+ *
+ * The old and new values are the fields that changed, rendered as JSON by {@link AuditDiff}.
+ *
+ * Entries are read back newest first with keyset pagination on (timestamp, id), see
+ * {@link #find(String, Long, Long, LocalDateTime, LocalDateTime, String, int)}.
  */
 @Service
 public class AuditLogService {
+    private static final Logger log = LoggerFactory.getLogger(AuditLogService.class);
+    private static final Set<String> MODES = Set.of("async", "journal", "sync");
+    /** Bounds used when no time range is given; the DATETIME range of MySQL. */
+    private static final LocalDateTime EARLIEST = LocalDateTime.of(1000, 1, 1, 0, 0);
+    private static final LocalDateTime LATEST = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+    private static final LocalDateTime EPOCH = LocalDateTime.of(1970, 1, 1, 0, 0);
+
     private final AuditLogRepository repo;
+    private final AuditLogWriter writer;
+    private final AuditJournal journal;
+    private final String mode;
 
-    /** Constructor for AuditLogService */
-    public AuditLogService(AuditLogRepository repo) {
+    /**
+     * Constructor for AuditLogService
+     *
+     * @throws IllegalArgumentException If the mode is not async, journal or sync, so that a
+     *         misspelled mode fails startup instead of silently falling back to another one.
+     */
+    public AuditLogService(AuditLogRepository repo, AuditLogWriter writer, AuditJournal journal,
+                           @Value("${indostore.audit.mode:async}") String mode) {
         this.repo = repo;
+        this.writer = writer;
+        this.journal = journal;
+        this.mode = mode.strip().toLowerCase(Locale.ROOT);
+        if (!MODES.contains(this.mode)) {
+            throw new IllegalArgumentException("Unknown indostore.audit.mode '" + mode + "', expected async, journal or sync");
+        }
+    }
+
+    /**
+     * Creates and saves an audit log entry recording the fields that changed.
+     *
+     * @param table The table the record belongs to.
+     * @param recordId The ID of the record.
+     * @param user The user performing the action.
+     * @param action The action performed (CREATE, UPDATE or DELETE).
+     * @param before The state of the record before the action, or null when it did not exist.
+     * @param after The state of the record after the action, or null when it no longer exists.
+     */
+    public void log(String table, Long recordId, User user, String action,
+                    AuditDiff.State before, AuditDiff.State after) {
+        AuditDiff.Change change = AuditDiff.between(before, after);
+        AuditLog entry = new AuditLog();
+        entry.setTableName(table);
+        entry.setRecordId(recordId);
+        entry.setUser(user);
+        entry.setAction(action);
+        entry.setTimestamp(LocalDateTime.now());
+        entry.setOldValue(change.oldValue());
+        entry.setNewValue(change.newValue());
+        switch (mode) {
+            case "journal" -> afterCommit(() -> {
+                try {
+                    journal.append(entry);
+                } catch (RuntimeException e) {
+                    log.warn("Audit journal append failed, writing to the database", e);
+                    writer.submit(entry);
+                }
+            });
+            case "sync" -> repo.save(entry);
+            case "async" -> afterCommit(() -> writer.submit(entry));
+        }
     }
 
-    /** Creates and saves an audit log entry */
-    public void log(String table, Long recordId, User user, String action, String oldValue, String newValue) {
-        AuditLog log = new AuditLog();
-        log.setTableName(table);
-        log.setRecordId(recordId);
-        log.setUser(user);
-        log.setAction(action);
-        log.setTimestamp(LocalDateTime.now());
-        log.setOldValue(oldValue);
-        log.setNewValue(newValue);
-        repo.save(log);
+    /**
+     * Returns the audit log entries that follow the given cursor, newest first.
+     *
+     * Filters by one record ({@code table} and {@code recordId}) or by one user, optionally
+     * within a time range. Each combination is answered by a range scan of an index ending
+     * in (timestamp, id), and pages seek past the (timestamp, id) of the previous page
+     * instead of skipping rows, so every page costs the same however deep it is.
+     *
+     * @param table The table of the record, together with {@code recordId} (optional).
+     * @param recordId The ID of the record, together with {@code table} (optional).
+     * @param userId The ID of the user who performed the actions (optional).
+     * @param from The earliest timestamp, inclusive (optional).
+     * @param to The latest timestamp, exclusive (optional).
+     * @param cursor The cursor returned with the previous page, or blank to start from the newest entry.
+     * @param size The number of items per page.
+     * @return The page of entries and the cursor of the following page.
+     * @throws IllegalArgumentException If the filters do not match an index or the cursor is malformed.
+     */
+    public CursorPage<AuditLogEntry> find(String table, Long recordId, Long userId,
+                                          LocalDateTime from, LocalDateTime to, String cursor, int size) {
+        checkPageSize(size);
+        if ((table == null) != (recordId == null)) {
+            throw new IllegalArgumentException("Table and record ID must be given together");
+        }
+        if (recordId != null && userId != null) {
+            throw new IllegalArgumentException("Filter by either record or user, not both");
+        }
+
+        LocalDateTime earliest = from != null ? from : EARLIEST;
+        LocalDateTime beforeTime = to != null ? to : LATEST;
+        // IDs start at 1, so seeking before ID 0 excludes entries at exactly the end of the range
+        long beforeId = to != null ? 0L : Long.MAX_VALUE;
+        long[] position = decodeCursorPair(cursor);
+        if (position != null) {
+            beforeTime = EPOCH.plus(position[0], ChronoUnit.MICROS);
+            beforeId = position[1];
+        }
+
+        Limit limit = Limit.of(size + 1);
+        List<AuditLogEntry> rows;
+        if (recordId != null) {
+            rows = repo.findEntriesOfRecord(table, recordId, earliest, beforeTime, beforeId, limit);
+        } else if (userId != null) {
+            rows = repo.findEntriesOfUser(userId, earliest, beforeTime, beforeId, limit);
+        } else {
+            rows = repo.findEntries(earliest, beforeTime, beforeId, limit);
+        }
+        return keysetPage(rows, size, entry ->
+                encodeCursor(ChronoUnit.MICROS.between(EPOCH, entry.timestamp()), entry.id()));
     }
 }
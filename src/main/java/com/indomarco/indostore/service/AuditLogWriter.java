@@ -0,0 +1,283 @@
+package com.indomarco.indostore.service;
+
+import com.indomarco.indostore.entity.AuditLog;
+import com.indomarco.indostore.repository.AuditLogRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Background writer for audit log entries.
+ *
+ * Entries are queued in a bounded in-process queue and written by a single flusher
+ * thread, either once {@code indostore.audit.batch-size} entries are waiting or
+ * {@code indostore.audit.flush-interval} after the first one was queued. Each flush
+ * saves its entries in one transaction, which Hibernate sends as JDBC insert batches
+ * of {@code hibernate.jdbc.batch_size}.
+ *
+ * When the queue stays full for longer than {@code indostore.audit.offer-timeout},
+ * the submitting thread writes its entry itself, which slows writers down to the
+ * speed of the database instead of dropping entries. On shutdown the queue is
+ * drained before the data source is closed, and entries submitted after that are
+ * written by the submitting thread.
+ *
+ * A batch that fails is retried with exponential backoff, from
+ * {@code indostore.audit.flush-interval} up to {@code indostore.audit.max-backoff},
+ * until it is written; the queue fills up meanwhile and submitters fall back to
+ * writing themselves. A batch the database rejects as invalid is written entry by
+ * entry so that the others still get in. Only entries that are rejected on their
+ * own, or still not written after {@code indostore.audit.retry-attempts} attempts
+ * during shutdown, are given up on, and each of them is logged in full.
+ */
+@Component
+public class AuditLogWriter implements SmartLifecycle {
+    private static final Logger log = LoggerFactory.getLogger(AuditLogWriter.class);
+
+    private final AuditLogRepository repo;
+    private final TransactionTemplate transactionTemplate;
+    private final BlockingQueue<AuditLog> queue;
+    private final int batchSize;
+    private final Duration flushInterval;
+    private final Duration offerTimeout;
+    private final Duration maxBackoff;
+    private final int retryAttempts;
+
+    private volatile boolean running;
+    private Thread flusher;
+
+    /**
+     * Constructor for AuditLogWriter.
+     *
+     * @param repo The AuditLogRepository used to save the entries.
+     * @param transactionTemplate The TransactionTemplate each batch is saved in.
+     * @param queueCapacity The maximum number of entries waiting to be written.
+     * @param batchSize The maximum number of entries written in one batch.
+     * @param flushInterval The longest time an entry waits for its batch to fill up.
+     * @param offerTimeout How long a submitter waits for room in a full queue before writing itself.
+     * @param maxBackoff The longest wait between two attempts to write a failed batch.
+     * @param retryAttempts The attempts made to write a failed batch once the writer is stopping.
+     * @param registry The MeterRegistry the queue size is published to.
+     */
+    public AuditLogWriter(AuditLogRepository repo, TransactionTemplate transactionTemplate,
+                          @Value("${indostore.audit.queue-capacity:10000}") int queueCapacity,
+                          @Value("${indostore.audit.batch-size:100}") int batchSize,
+                          @Value("${indostore.audit.flush-interval:200ms}") Duration flushInterval,
+                          @Value("${indostore.audit.offer-timeout:100ms}") Duration offerTimeout,
+                          @Value("${indostore.audit.max-backoff:30s}") Duration maxBackoff,
+                          @Value("${indostore.audit.retry-attempts:5}") int retryAttempts,
+                          MeterRegistry registry) {
+        this.repo = repo;
+        this.transactionTemplate = transactionTemplate;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.flushInterval = flushInterval;
+        this.offerTimeout = offerTimeout;
+        this.maxBackoff = maxBackoff;
+        this.retryAttempts = retryAttempts;
+        Gauge.builder("indostore.audit.queue.size", queue, BlockingQueue::size)
+                .description("Audit log entries waiting to be written")
+                .register(registry);
+    }
+
+    /**
+     * Queues an entry to be written by the flusher thread.
+     *
+     * @param entry The audit log entry to write.
+     */
+    public void submit(AuditLog entry) {
+        if (running) {
+            try {
+                // stop() may have drained the queue between the check and the offer;
+                // if the entry is still there it is taken back and written here
+                if (queue.offer(entry, offerTimeout.toMillis(), TimeUnit.MILLISECONDS)
+                        && (running || !queue.remove(entry))) {
+                    return;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        write(List.of(entry));
+    }
+
+    /**
+     * Saves the given entries in one transaction.
+     *
+     * @param entries The entries to insert.
+     */
+    public void write(List<AuditLog> entries) {
+        if (entries.isEmpty()) return;
+        transactionTemplate.executeWithoutResult(status -> repo.saveAll(entries));
+    }
+
+    /**
+     * Saves the given entries in one transaction, or entry by entry when the database rejects
+     * the batch as invalid, giving up on the entries it rejects on their own like a flush does.
+     *
+     * Any other failure is thrown without retrying, for callers that can try the whole batch
+     * again later, such as {@link AuditJournalLoader}.
+     *
+     * @param entries The entries to insert.
+     */
+    public void writeSkippingRejected(List<AuditLog> entries) {
+        try {
+            write(entries);
+        } catch (DataIntegrityViolationException e) {
+            resetIds(entries);
+            log.warn("Audit log batch of {} entries rejected, writing them one by one", entries.size(), e);
+            for (AuditLog entry : entries) {
+                try {
+                    write(List.of(entry));
+                } catch (DataIntegrityViolationException rejected) {
+                    entry.setId(null);
+                    log.error("Audit log entry rejected", rejected);
+                    giveUp(entry);
+                }
+            }
+        }
+    }
+
+    /** Returns the number of entries waiting to be written. */
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    private void run() {
+        List<AuditLog> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                AuditLog first = queue.poll(flushInterval.toMillis(), TimeUnit.MILLISECONDS);
+                if (first == null) continue;
+                batch.add(first);
+                long deadline = System.nanoTime() + flushInterval.toNanos();
+                while (batch.size() < batchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    AuditLog next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) break;
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                queue.drainTo(batch);
+                running = false;
+            }
+            flush(batch);
+        }
+    }
+
+    private void flush(List<AuditLog> batch) {
+        if (batch.isEmpty()) return;
+        try {
+            if (!writeWithRetries(batch)) {
+                batch.forEach(AuditLogWriter::giveUp);
+            }
+        } catch (DataIntegrityViolationException e) {
+            log.warn("Audit log batch of {} entries rejected, writing them one by one", batch.size(), e);
+            for (AuditLog entry : batch) {
+                try {
+                    if (!writeWithRetries(List.of(entry))) giveUp(entry);
+                } catch (DataIntegrityViolationException rejected) {
+                    log.error("Audit log entry rejected", rejected);
+                    giveUp(entry);
+                }
+            }
+        } finally {
+            batch.clear();
+        }
+    }
+
+    /**
+     * Writes the entries, retrying with backoff while the writer is running and at most
+     * {@code retryAttempts} times once it is stopping.
+     *
+     * @return false if the entries could not be written before the writer stopped retrying.
+     * @throws DataIntegrityViolationException if the database rejects the entries themselves.
+     */
+    private boolean writeWithRetries(List<AuditLog> entries) {
+        long backoff = Math.max(flushInterval.toMillis(), 1);
+        for (int attempt = 1; ; attempt++) {
+            try {
+                write(entries);
+                return true;
+            } catch (DataIntegrityViolationException e) {
+                resetIds(entries);
+                throw e;
+            } catch (RuntimeException e) {
+                // A failed transaction leaves the generated ids on the entities; without
+                // them the retry inserts the entries again instead of merging them
+                resetIds(entries);
+                if (!running && attempt >= retryAttempts) {
+                    log.error("Failed to write {} audit log entries after {} attempts", entries.size(), attempt, e);
+                    return false;
+                }
+                log.warn("Failed to write {} audit log entries (attempt {}), retrying in {} ms",
+                        entries.size(), attempt, backoff, e);
+            }
+            try {
+                Thread.sleep(backoff);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            }
+            backoff = Math.min(backoff * 2, maxBackoff.toMillis());
+        }
+    }
+
+    private static void resetIds(List<AuditLog> entries) {
+        entries.forEach(entry -> entry.setId(null));
+    }
+
+    /** Logs an entry that could not be written, with everything needed to insert it by hand. */
+    private static void giveUp(AuditLog entry) {
+        log.error("Audit log entry not written: table={} recordId={} action={} timestamp={} userId={} old={} new={}",
+                entry.getTableName(), entry.getRecordId(), entry.getAction(), entry.getTimestamp(),
+                entry.getUser() != null ? entry.getUser().getId() : null, entry.getOldValue(), entry.getNewValue());
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        flusher = new Thread(this::run, "audit-log-writer");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (flusher != null) {
+            try {
+                flusher.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        List<AuditLog> rest = new ArrayList<>();
+        queue.drainTo(rest);
+        flush(rest);
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /** Starts before and stops after the web server, so every request's entries are drained. */
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+}
@@ -1,14 +1,37 @@
 package com.indomarco.indostore.service;
 
+import com.indomarco.indostore.cache.HierarchySnapshot;
+import com.indomarco.indostore.cache.ChangeCounters;
+import com.indomarco.indostore.cache.HierarchySnapshotCache;
+import com.indomarco.indostore.cache.SummaryRegistry;
+import com.indomarco.indostore.cache.WhitelistStoreCache;
+import com.indomarco.indostore.dto.BranchSummary;
+import com.indomarco.indostore.dto.ProvinceSummary;
 import com.indomarco.indostore.entity.Branch;
 import com.indomarco.indostore.entity.Province;
 import com.indomarco.indostore.entity.User;
 import com.indomarco.indostore.repository.BranchRepository;
 import com.indomarco.indostore.repository.ProvinceRepository;
+import com.indomarco.indostore.search.SearchIndex;
+import com.indomarco.indostore.utility.AuditDiff;
+import com.indomarco.indostore.utility.CursorPage;
+import com.indomarco.indostore.utility.FieldSelection;
 import jakarta.transaction.Transactional;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
-import static com.indomarco.indostore.utility.PaginationUtils.paginate;
+import static com.indomarco.indostore.utility.PaginationUtils.checkPageSize;
+import static com.indomarco.indostore.utility.PaginationUtils.cursorPage;
+import static com.indomarco.indostore.utility.PaginationUtils.decodeCursor;
+import static com.indomarco.indostore.utility.PaginationUtils.toPage;
+import static com.indomarco.indostore.utility.VersionUtils.checkVersion;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * Service class for managing Branch entities.
@@ -18,9 +41,18 @@ import java.util.List;
  */
 @Service
 public class BranchService {
+    /** The associations {@link #shape(List, FieldSelection)} can embed. */
+    public static final Set<String> EXPANSIONS = Set.of("province", "stores");
+
     private final BranchRepository repo;
     private final AuditLogService auditLogService;
     private final ProvinceRepository provinceRepository;
+    private final SearchIndex searchIndex;
+    private final HierarchySnapshotCache hierarchy;
+    private final SummaryRegistry registry;
+    private final WhitelistStoreCache whitelistCache;
+    private final ChangeCounters changes;
+    private final int maxEmbedded;
 
     /**
      * Constructor for BranchService.
@@ -28,11 +60,26 @@ public class BranchService {
      * @param repo The BranchRepository used for database operations.
      * @param auditLogService The AuditLogService used to log changes.
      * @param provinceRepository The ProvinceRepository to validate branch provinces.
+     * @param searchIndex The search index updated on every change.
+     * @param hierarchy The hierarchy snapshot the listing is served from, rebuilt on every change.
+     * @param registry The registry branches are looked up by ID in, updated on every change.
+     * @param whitelistCache The cache of whitelisted stores, invalidated on every change since it holds the branch name of each store.
+     * @param changes The change counters the ETags are derived from, moved on every change.
+     * @param maxEmbedded The largest number of stores embedded in each listed branch.
      */
-    public BranchService(BranchRepository repo, AuditLogService auditLogService, ProvinceRepository provinceRepository) {
+    public BranchService(BranchRepository repo, AuditLogService auditLogService, ProvinceRepository provinceRepository,
+                         SearchIndex searchIndex, HierarchySnapshotCache hierarchy,
+                         SummaryRegistry registry, WhitelistStoreCache whitelistCache, ChangeCounters changes,
+                         @Value("${indostore.expand.max-rows:20}") int maxEmbedded) {
         this.repo = repo;
         this.provinceRepository = provinceRepository;
         this.auditLogService = auditLogService;
+        this.searchIndex = searchIndex;
+        this.hierarchy = hierarchy;
+        this.registry = registry;
+        this.whitelistCache = whitelistCache;
+        this.changes = changes;
+        this.maxEmbedded = maxEmbedded;
     }
 
     /**
@@ -53,20 +100,56 @@ public class BranchService {
         branch.setProvince(province);
         
         Branch saved = repo.save(branch);
-        auditLogService.log("branches", saved.getId(), user, "CREATE", null, saved.toString());
+        searchIndex.branchSaved(saved);
+        hierarchy.invalidate();
+        changes.changed(ChangeCounters.BRANCHES);
+        auditLogService.log("branches", saved.getId(), user, "CREATE", null, AuditDiff.of(saved));
         return saved;
     }
 
     /**
      * Returns a paginated list of active and not deleted branches.
      *
+     * The branches are served from the {@link HierarchySnapshot}, without querying the database.
+     *
      * @param page The page number (0-based).
      * @param size The number of items per page.
-     * @return A paginated list of branches.
+     * @return The requested page of branch projections, including the total count.
+     */
+    public Page<BranchSummary> all(int page, int size) {
+        return toPage(hierarchy.get().getBranches(), page, size);
+    }
+
+    /**
+     * Returns the ETag of the {@link #all(int, int)} listing, without reading it.
+     *
+     * Combines the version of the {@link HierarchySnapshot} the pages are served from with the
+     * change counters of the tables embedded associations are read from, so the tag moves
+     * whenever any page of the listing could change.
+     *
+     * Also covers the {@link #after(String, int)} listing, which is read from the database.
+     *
+     * @return The unquoted strong ETag.
      */
-    public List<Branch> all(int page, int size) {
-        List<Branch> branches = repo.findByIsActiveTrueAndIsDeletedFalse();
-        return paginate(branches, page, size);
+    public String listingTag() {
+        return changes.etag(hierarchy.get().getVersion(), changes.get(ChangeCounters.PROVINCES),
+                changes.get(ChangeCounters.BRANCHES), changes.get(ChangeCounters.STORES));
+    }
+
+    /**
+     * Returns the active and not deleted branches that follow the given cursor, in ID order.
+     *
+     * Seeks on the primary key instead of skipping rows, so every page costs the same
+     * no matter how deep into the listing it is.
+     *
+     * @param cursor The cursor returned with the previous page, or blank to start from the first branch.
+     * @param size The number of items per page.
+     * @return The page of branches and the cursor of the following page.
+     */
+    public CursorPage<BranchSummary> after(String cursor, int size) {
+        checkPageSize(size);
+        List<BranchSummary> rows = repo.findActiveSummariesAfter(decodeCursor(cursor), Limit.of(size + 1));
+        return cursorPage(rows, size, BranchSummary::id);
     }
 
     /**
@@ -80,18 +163,36 @@ public class BranchService {
         return repo.findById(id).orElseThrow(() -> new RuntimeException("Branch not found"));
     }
 
+    /**
+     * Retrieves the projection of a branch by its ID, from {@link SummaryRegistry}.
+     *
+     * Lookups of a branch are answered from memory after the first one, until the branch changes.
+     *
+     * @param id The ID of the branch.
+     * @return The branch projection.
+     * @throws RuntimeException If the branch is not found.
+     */
+    public BranchSummary getSummary(Long id) {
+        return registry.getBranch(id).orElseThrow(() -> new RuntimeException("Branch not found"));
+    }
+
     /**
      * Updates an existing branch and logs the changes.
      *
+     * When the data carries the {@code version} the client read, the update is refused if
+     * the branch has changed since. The new version is flushed so that it is returned.
+     *
      * @param id The ID of the branch to update.
      * @param data The new branch data.
      * @param user The user performing the update.
      * @return The updated Branch entity.
+     * @throws ObjectOptimisticLockingFailureException If the branch changed since the client read it.
      */
     @Transactional
     public Branch update(Long id, Branch data, User user) {
         Branch branch = get(id);
-        String old = branch.toString();
+        checkVersion(Branch.class, id, data.getVersion(), branch.getVersion());
+        AuditDiff.State old = AuditDiff.of(branch);
         branch.setName(data.getName());
         branch.setIsActive(data.getIsActive());
         branch.setIsDeleted(data.getIsDeleted());
@@ -102,8 +203,13 @@ public class BranchService {
             branch.setProvince(province);
         }
 
-        Branch updated = repo.save(branch);
-        auditLogService.log("branches", id, user, "UPDATE", old, updated.toString());
+        Branch updated = repo.saveAndFlush(branch);
+        searchIndex.branchSaved(updated);
+        hierarchy.invalidate();
+        registry.branchChanged(id);
+        whitelistCache.invalidate();
+        changes.changed(ChangeCounters.BRANCHES);
+        auditLogService.log("branches", id, user, "UPDATE", old, AuditDiff.of(updated));
         return updated;
     }
 
@@ -117,9 +223,45 @@ public class BranchService {
     @Transactional
     public void delete(Long id, User user) {
         Branch branch = get(id);
+        AuditDiff.State old = AuditDiff.of(branch);
         branch.setIsDeleted(true);
         repo.save(branch);
-        auditLogService.log("branches", id, user, "DELETE", branch.toString(), null);
+        searchIndex.branchSaved(branch);
+        hierarchy.invalidate();
+        registry.branchChanged(id);
+        whitelistCache.invalidate();
+        changes.changed(ChangeCounters.BRANCHES);
+        auditLogService.log("branches", id, user, "DELETE", old, AuditDiff.of(branch));
     }
-}
 
+    /**
+     * Renders listed branches with only the requested fields and associations.
+     *
+     * Provinces are read with one query for all the branches of the page. Stores are taken
+     * from the {@link HierarchySnapshot}, without querying the database, and cut to the first
+     * {@code indostore.expand.max-rows} of each branch by ID; see
+     * {@link FieldSelection#embed(Map, String, List, int)}.
+     *
+     * @param branches The branches of a page.
+     * @param selection The fields and associations asked for.
+     * @return The branches unchanged when nothing specific was asked for, otherwise one map per branch.
+     */
+    public List<?> shape(List<BranchSummary> branches, FieldSelection selection) {
+        if (selection.isDefault()) return branches;
+
+        Map<Long, ProvinceSummary> provinces = selection.expands("province") && !branches.isEmpty()
+                ? provinceRepository.findSummariesByIdIn(branches.stream().map(BranchSummary::provinceId).distinct().toList())
+                        .stream().collect(Collectors.toMap(ProvinceSummary::id, Function.identity()))
+                : Map.of();
+        HierarchySnapshot snapshot = hierarchy.get();
+
+        return branches.stream().map(branch -> {
+            Map<String, Object> rendered = selection.render(branch);
+            if (selection.expands("province")) rendered.put("province", provinces.get(branch.provinceId()));
+            if (selection.expands("stores")) {
+                FieldSelection.embed(rendered, "stores", snapshot.getStoresOfBranch(branch.id()), maxEmbedded);
+            }
+            return rendered;
+        }).toList();
+    }
+}
@@ -1,16 +1,39 @@
 package com.indomarco.indostore.service;
 
+import com.indomarco.indostore.cache.HierarchySnapshot;
+import com.indomarco.indostore.cache.ChangeCounters;
+import com.indomarco.indostore.cache.HierarchySnapshotCache;
+import com.indomarco.indostore.cache.SummaryRegistry;
+import com.indomarco.indostore.cache.WhitelistStoreCache;
+import com.indomarco.indostore.dto.BranchSummary;
+import com.indomarco.indostore.dto.ProvinceSummary;
+import com.indomarco.indostore.dto.StoreSummary;
 import com.indomarco.indostore.entity.Province;
-import com.indomarco.indostore.entity.Store;
 import com.indomarco.indostore.entity.User;
 import com.indomarco.indostore.repository.ProvinceRepository;
-import com.indomarco.indostore.repository.WhitelistStoreRepository;
+import com.indomarco.indostore.search.NgramIndex;
+import com.indomarco.indostore.search.SearchIndex;
+import com.indomarco.indostore.utility.AuditDiff;
+import com.indomarco.indostore.utility.FieldSelection;
 import jakarta.transaction.Transactional;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import static com.indomarco.indostore.utility.PaginationUtils.checkPageSize;
+import static com.indomarco.indostore.utility.PaginationUtils.pageRequest;
 import static com.indomarco.indostore.utility.PaginationUtils.paginate;
+import static com.indomarco.indostore.utility.PaginationUtils.toPage;
+import static com.indomarco.indostore.utility.VersionUtils.checkVersion;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * Service class for managing Province entities.
@@ -21,22 +44,43 @@ import java.util.Map;
  */
 @Service
 public class ProvinceService {
+    /** The associations {@link #shape(List, FieldSelection)} can embed. */
+    public static final Set<String> EXPANSIONS = Set.of("branches", "stores");
+
     private final ProvinceRepository repo;
     private final AuditLogService auditLogService;
-    private final WhitelistStoreRepository whitelistRepo;
+    private final WhitelistStoreCache whitelistCache;
+    private final SearchIndex searchIndex;
+    private final HierarchySnapshotCache hierarchy;
+    private final SummaryRegistry registry;
+    private final ChangeCounters changes;
+    private final int maxEmbedded;
 
     /**
      * Constructor for ProvinceService.
      *
      * @param repo The ProvinceRepository used for database operations.
      * @param auditLogService The AuditLogService used to log changes.
-     * @param whitelistRepo The WhitelistStoreRepository used to retrieve whitelist stores.
+     * @param whitelistCache The cache used to retrieve whitelist stores.
+     * @param searchIndex The search index used to search provinces by name, updated on every change.
+     * @param hierarchy The hierarchy snapshot the listings are served from, rebuilt on every change.
+     * @param registry The registry of branches by ID, whose entries hold the name of their province.
+     * @param changes The change counters the ETags are derived from, moved on every change.
+     * @param maxEmbedded The largest number of branches or stores embedded in each listed province.
      */
     public ProvinceService(ProvinceRepository repo, AuditLogService auditLogService,
-                           WhitelistStoreRepository whitelistRepo) {
+                           WhitelistStoreCache whitelistCache, SearchIndex searchIndex,
+                           HierarchySnapshotCache hierarchy, SummaryRegistry registry,
+                           ChangeCounters changes,
+                           @Value("${indostore.expand.max-rows:20}") int maxEmbedded) {
         this.repo = repo;
         this.auditLogService = auditLogService;
-        this.whitelistRepo = whitelistRepo;
+        this.whitelistCache = whitelistCache;
+        this.searchIndex = searchIndex;
+        this.hierarchy = hierarchy;
+        this.registry = registry;
+        this.changes = changes;
+        this.maxEmbedded = maxEmbedded;
     }
 
     /**
@@ -49,20 +93,54 @@ public class ProvinceService {
     @Transactional
     public Province create(Province province, User user) {
         Province saved = repo.save(province);
-        auditLogService.log("provinces", saved.getId(), user, "CREATE", null, saved.toString());
+        searchIndex.provinceSaved(saved);
+        hierarchy.invalidate();
+        changes.changed(ChangeCounters.PROVINCES);
+        auditLogService.log("provinces", saved.getId(), user, "CREATE", null, AuditDiff.of(saved));
         return saved;
     }
 
     /**
      * Returns a paginated list of active and not deleted provinces.
      *
+     * The provinces are served from the {@link HierarchySnapshot}, without querying the database.
+     *
      * @param page The page number (0-based).
      * @param size The number of items per page.
-     * @return A paginated list of provinces.
+     * @return The requested page of province projections, including the total count.
+     */
+    public Page<ProvinceSummary> all(int page, int size) {
+        return toPage(hierarchy.get().getProvinces(), page, size);
+    }
+
+    /**
+     * Returns the ETag of the {@link #all(int, int)} listing, without reading it.
+     *
+     * Combines the version of the {@link HierarchySnapshot} the page and its embedded branches
+     * and stores are served from with the change counters of provinces and branches, so the tag
+     * moves whenever any page of the listing could change.
+     *
+     * @return The unquoted strong ETag.
      */
-    public List<Province> all(int page, int size) {
-        List<Province> provinces = repo.findByIsActiveTrueAndIsDeletedFalse();
-        return paginate(provinces, page, size);
+    public String listingTag() {
+        return changes.etag(hierarchy.get().getVersion(), changes.get(ChangeCounters.PROVINCES),
+                changes.get(ChangeCounters.BRANCHES));
+    }
+
+    /**
+     * Describes the {@link HierarchySnapshot} the listings are currently served from.
+     *
+     * @return A map containing the version and build time of the snapshot, and the number of provinces, branches and stores in it.
+     */
+    public Map<String, Object> hierarchyInfo() {
+        HierarchySnapshot snapshot = hierarchy.get();
+        Map<String, Object> info = new LinkedHashMap<>();
+        info.put("version", snapshot.getVersion());
+        info.put("builtAt", snapshot.getBuiltAt());
+        info.put("provinces", snapshot.getProvinces().size());
+        info.put("branches", snapshot.getBranches().size());
+        info.put("stores", snapshot.getStoreCount());
+        return info;
     }
 
     /**
@@ -79,20 +157,29 @@ public class ProvinceService {
     /**
      * Updates an existing province and logs the changes.
      *
+     * When the data carries the {@code version} the client read, the update is refused if
+     * the province has changed since. The new version is flushed so that it is returned.
+     *
      * @param id The ID of the province to update.
      * @param data The new province data.
      * @param user The user performing the update.
      * @return The updated Province entity.
+     * @throws ObjectOptimisticLockingFailureException If the province changed since the client read it.
      */
     @Transactional
     public Province update(Long id, Province data, User user) {
         Province province = get(id);
-        String old = province.toString();
+        checkVersion(Province.class, id, data.getVersion(), province.getVersion());
+        AuditDiff.State old = AuditDiff.of(province);
         province.setName(data.getName());
         province.setIsActive(data.getIsActive());
         province.setIsDeleted(data.getIsDeleted());
-        Province updated = repo.save(province);
-        auditLogService.log("provinces", id, user, "UPDATE", old, updated.toString());
+        Province updated = repo.saveAndFlush(province);
+        searchIndex.provinceSaved(updated);
+        hierarchy.invalidate();
+        registry.provinceChanged();
+        changes.changed(ChangeCounters.PROVINCES);
+        auditLogService.log("provinces", id, user, "UPDATE", old, AuditDiff.of(updated));
         return updated;
     }
 
@@ -105,49 +192,64 @@ public class ProvinceService {
     @Transactional
     public void delete(Long id, User user) {
         Province province = get(id);
+        AuditDiff.State old = AuditDiff.of(province);
         province.setIsDeleted(true);
         repo.save(province);
-        auditLogService.log("provinces", id, user, "DELETE", province.toString(), null);
+        searchIndex.provinceSaved(province);
+        hierarchy.invalidate();
+        registry.provinceChanged();
+        changes.changed(ChangeCounters.PROVINCES);
+        auditLogService.log("provinces", id, user, "DELETE", old, AuditDiff.of(province));
     }
 
      /**
      * Searches provinces by name with pagination.
      *
+     * Matches are found in {@link SearchIndex} and ranked: exact names first, then names
+     * starting with the query, then names with a word starting with it, then any other
+     * match. Until the index has loaded, and for names shorter than
+     * {@link NgramIndex#MIN_QUERY_LENGTH} characters, provinces are searched in the database in ID order.
+     *
      * @param name The name to search for (case-insensitive, partial match).
      * @param page The page number (0-based).
      * @param size The number of items per page.
-     * @return A paginated list of provinces matching the name.
+     * @return The requested page of province projections matching the name, including the total count.
      */
-    public List<Province> searchByName(String name, int page, int size) {
-        List<Province> provinces = repo.findByNameContainingIgnoreCaseAndIsActiveTrueAndIsDeletedFalse(name);
-        return paginate(provinces, page, size);
+    public Page<ProvinceSummary> searchByName(String name, int page, int size) {
+        Pageable pageable = pageRequest(page, size);
+        if (!searchIndex.isReady() || !NgramIndex.isSearchable(name)) {
+            return repo.searchActiveSummaries(name, pageable);
+        }
+        List<Long> ids = searchIndex.searchProvinceIds(name);
+        List<Long> pageIds = paginate(ids, page, size);
+        Map<Long, ProvinceSummary> found = pageIds.isEmpty() ? Map.of() : repo.findSummariesByIdIn(pageIds).stream()
+                .collect(Collectors.toMap(ProvinceSummary::id, Function.identity()));
+        List<ProvinceSummary> content = pageIds.stream()
+                .map(found::get)
+                .filter(p -> p != null)
+                .toList();
+        return new PageImpl<>(content, pageable, ids.size());
     }
 
     /**
      * Searches stores by province name including whitelist stores, with pagination.
      *
+     * The province and its stores are looked up in the {@link HierarchySnapshot}, and the
+     * whitelist stores are served from {@link WhitelistStoreCache}, so the database is not queried.
+     *
      * @param provinceName The name of the province to search stores in.
      * @param page The page number (0-based).
      * @param size The number of items per page.
-     * @return A map containing "provinceStores" and "whitelistStores" as paginated lists of stores.
+     * @return A map containing "provinceStores" and "whitelistStores" as paginated lists of store projections.
      */
     public Map<String, Object> searchStoresByProvince(String provinceName, int page, int size) {
-        Province province = repo.findByNameContainingIgnoreCaseAndIsActiveTrueAndIsDeletedFalse(provinceName)
-                .stream().findFirst()
+        checkPageSize(size);
+        HierarchySnapshot snapshot = hierarchy.get();
+        ProvinceSummary province = snapshot.findFirstProvinceByName(provinceName)
                 .orElseThrow(() -> new RuntimeException("Province not found"));
 
-        List<Store> provinceStores = province.getBranches().stream()
-                .flatMap(branch -> branch.getStores().stream())
-                .filter(store -> store.getIsActive() && !store.getIsDeleted())
-                .toList();
-
-        List<Store> whitelistStores = whitelistRepo.findAll().stream()
-                .map(whiteliststore -> whiteliststore.getStore())
-                .filter(store -> store.getIsActive() && !store.getIsDeleted())
-                .toList();
-
-        List<Store> paginatedProvinceStores = paginate(provinceStores, page, size);
-        List<Store> paginatedWhitelistStores = paginate(whitelistStores, page, size);
+        List<StoreSummary> paginatedProvinceStores = paginate(snapshot.getStoresOfProvince(province.id()), page, size);
+        List<StoreSummary> paginatedWhitelistStores = paginate(whitelistCache.get(), page, size);
 
         Map<String, Object> response = new HashMap<>();
         response.put("whitelistStores", paginatedWhitelistStores);
@@ -156,4 +258,31 @@ public class ProvinceService {
         return response;
     }
 
-}
\ No newline at end of file
+    /**
+     * Renders listed provinces with only the requested fields and associations.
+     *
+     * Branches and stores are taken from the {@link HierarchySnapshot}, without querying the
+     * database, and each is cut to the first {@code indostore.expand.max-rows} rows by ID; see
+     * {@link FieldSelection#embed(Map, String, List, int)}.
+     *
+     * @param provinces The provinces of a page.
+     * @param selection The fields and associations asked for.
+     * @return The provinces unchanged when nothing specific was asked for, otherwise one map per province.
+     */
+    public List<?> shape(List<ProvinceSummary> provinces, FieldSelection selection) {
+        if (selection.isDefault()) return provinces;
+
+        HierarchySnapshot snapshot = hierarchy.get();
+        return provinces.stream().map(province -> {
+            Map<String, Object> rendered = selection.render(province);
+            if (selection.expands("branches")) {
+                FieldSelection.embed(rendered, "branches", snapshot.getBranchesOfProvince(province.id()), maxEmbedded);
+            }
+            if (selection.expands("stores")) {
+                FieldSelection.embed(rendered, "stores", snapshot.getStoresOfProvince(province.id()), maxEmbedded);
+            }
+            return rendered;
+        }).toList();
+    }
+
+}
@@ -0,0 +1,77 @@
+package com.indomarco.indostore.service;
+
+import com.indomarco.indostore.dto.SearchHit;
+import com.indomarco.indostore.search.NgramIndex;
+import com.indomarco.indostore.search.PrefixTrie;
+import com.indomarco.indostore.search.SearchIndex;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Service class for searching provinces, branches and stores by name.
+ *
+ * Searches and autocomplete suggestions are answered from the in-memory {@link SearchIndex},
+ * without querying the database.
+ */
+@Service
+public class SearchService {
+    /** The largest number of hits a single search may return. */
+    public static final int MAX_LIMIT = 100;
+
+    private final SearchIndex searchIndex;
+
+    /**
+     * Constructor for SearchService.
+     *
+     * @param searchIndex The SearchIndex the searches are answered from.
+     */
+    public SearchService(SearchIndex searchIndex) {
+        this.searchIndex = searchIndex;
+    }
+
+    /**
+     * Searches the names of the active, not deleted provinces, branches and stores, and
+     * the addresses of the stores, best matches first.
+     *
+     * @param query The text to look for (case-insensitive, partial match), at least
+     *              {@link NgramIndex#MIN_QUERY_LENGTH} characters long; shorter texts are
+     *              answered by {@link #autocomplete(String, int)}.
+     * @param limit The maximum number of hits, at most {@link #MAX_LIMIT}.
+     * @return The best hits of all entity types.
+     * @throws IllegalArgumentException If the query is too short or the limit is out of range.
+     * @throws IllegalStateException If the search index has not been loaded yet.
+     */
+    public List<SearchHit> search(String query, int limit) {
+        if (!NgramIndex.isSearchable(query)) {
+            throw new IllegalArgumentException("Query must be at least " + NgramIndex.MIN_QUERY_LENGTH + " characters");
+        }
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_LIMIT);
+        }
+        if (!searchIndex.isReady()) {
+            throw new IllegalStateException("Search index is still loading");
+        }
+        return searchIndex.search(query, limit);
+    }
+
+    /**
+     * Suggests the active, not deleted provinces, branches and stores with a name that has
+     * a word starting with the prefix, best first.
+     *
+     * @param prefix The text typed so far (case-insensitive).
+     * @param limit The maximum number of suggestions, at most {@code indostore.search.autocomplete.top-k}.
+     * @return The suggestions; empty for a blank prefix.
+     * @throws IllegalArgumentException If the limit is out of range.
+     * @throws IllegalStateException If the search index has not been loaded yet.
+     */
+    public List<PrefixTrie.Suggestion> autocomplete(String prefix, int limit) {
+        if (limit < 1 || limit > searchIndex.getTopK()) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + searchIndex.getTopK());
+        }
+        if (!searchIndex.isReady()) {
+            throw new IllegalStateException("Search index is still loading");
+        }
+        return searchIndex.suggest(prefix, limit);
+    }
+}
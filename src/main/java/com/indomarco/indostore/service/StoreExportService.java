@@ -0,0 +1,95 @@
+package com.indomarco.indostore.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.indomarco.indostore.dto.StoreExportRow;
+import com.indomarco.indostore.repository.StoreRepository;
+import com.indomarco.indostore.utility.CsvUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Service class for exporting the full store catalogue.
+ *
+ * Rows are read from a forward-only database cursor as flat projections and written
+ * to the output as they arrive, so memory use does not depend on the number of stores.
+ */
+@Service
+public class StoreExportService {
+    /** The supported output formats. */
+    public enum Format { CSV, NDJSON }
+
+    private final StoreRepository repo;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Constructor for StoreExportService.
+     *
+     * @param repo The StoreRepository the stores are streamed from.
+     * @param transactionManager The transaction manager used to keep the cursor open while exporting.
+     * @param objectMapper The ObjectMapper used to write NDJSON rows.
+     */
+    public StoreExportService(StoreRepository repo, PlatformTransactionManager transactionManager,
+                              ObjectMapper objectMapper) {
+        this.repo = repo;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Writes every not deleted store, with its branch and province names, to the given output.
+     *
+     * @param format The format to write.
+     * @param out The output to write to; it is flushed but not closed.
+     */
+    public void export(Format format, OutputStream out) {
+        readOnlyTransaction.executeWithoutResult(status -> {
+            try (Stream<StoreExportRow> rows = repo.streamExportRows()) {
+                Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+                if (format == Format.CSV) {
+                    writeCsv(rows.iterator(), writer);
+                } else {
+                    writeNdjson(rows.iterator(), writer);
+                }
+                writer.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private void writeCsv(Iterator<StoreExportRow> rows, Writer writer) throws IOException {
+        CsvUtils.writeLine(writer, "id", "name", "address", "isActive",
+                "branchId", "branchName", "provinceId", "provinceName");
+        while (rows.hasNext()) {
+            StoreExportRow row = rows.next();
+            CsvUtils.writeLine(writer, row.id(), row.name(), row.address(), row.isActive(),
+                    row.branchId(), row.branchName(), row.provinceId(), row.provinceName());
+        }
+    }
+
+    private void writeNdjson(Iterator<StoreExportRow> rows, Writer writer) throws IOException {
+        SequenceWriter sequence = objectMapper.writer()
+                .withRootValueSeparator("\n")
+                .writeValues(writer);
+        if (!rows.hasNext()) return;
+        while (rows.hasNext()) {
+            sequence.write(rows.next());
+        }
+        sequence.flush();
+        writer.write('\n');
+    }
+}
@@ -0,0 +1,238 @@
+package com.indomarco.indostore.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.indomarco.indostore.cache.ChangeCounters;
+import com.indomarco.indostore.cache.HierarchySnapshotCache;
+import com.indomarco.indostore.dto.StoreImportResult;
+import com.indomarco.indostore.entity.Store;
+import com.indomarco.indostore.entity.User;
+import com.indomarco.indostore.repository.BranchRepository;
+import com.indomarco.indostore.repository.StoreRepository;
+import com.indomarco.indostore.search.SearchIndex;
+import com.indomarco.indostore.utility.AuditDiff;
+import com.indomarco.indostore.utility.CsvUtils;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Service class for importing stores in bulk.
+ *
+ * Reads CSV or NDJSON input line by line, so the request body is never held in memory
+ * as a whole. Rows are imported in chunks of {@code indostore.import.chunk-size}: the
+ * branch IDs of a chunk are checked with one query, and its stores are inserted in one
+ * transaction with JDBC batching. Rows that cannot be imported are reported with their
+ * line number and do not stop the import.
+ */
+@Service
+public class StoreImportService {
+    /** The supported input formats. */
+    public enum Format { CSV, NDJSON }
+
+    private final StoreRepository repo;
+    private final BranchRepository branchRepository;
+    private final AuditLogService auditLogService;
+    private final SearchIndex searchIndex;
+    private final HierarchySnapshotCache hierarchy;
+    private final ChangeCounters changes;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final int chunkSize;
+
+    /**
+     * Constructor for StoreImportService.
+     *
+     * @param repo The StoreRepository used to insert the stores.
+     * @param branchRepository The BranchRepository used to validate branch references.
+     * @param auditLogService The AuditLogService used to log the created stores.
+     * @param searchIndex The search index the created stores are added to.
+     * @param hierarchy The hierarchy snapshot rebuilt once the import is over.
+     * @param changes The change counters the ETags are derived from, moved after each imported chunk.
+     * @param transactionTemplate The TransactionTemplate each chunk is inserted in.
+     * @param validator The Validator applying the Store constraints to each row.
+     * @param objectMapper The ObjectMapper used to read NDJSON rows.
+     * @param chunkSize The number of rows inserted per transaction.
+     */
+    public StoreImportService(StoreRepository repo, BranchRepository branchRepository,
+                              AuditLogService auditLogService, SearchIndex searchIndex,
+                              HierarchySnapshotCache hierarchy, ChangeCounters changes,
+                              TransactionTemplate transactionTemplate,
+                              Validator validator, ObjectMapper objectMapper,
+                              @Value("${indostore.import.chunk-size:1000}") int chunkSize) {
+        this.repo = repo;
+        this.branchRepository = branchRepository;
+        this.auditLogService = auditLogService;
+        this.searchIndex = searchIndex;
+        this.hierarchy = hierarchy;
+        this.changes = changes;
+        this.transactionTemplate = transactionTemplate;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.chunkSize = chunkSize;
+    }
+
+    /** A parsed input row, waiting for its branch to be resolved. */
+    private record Row(long line, String name, String address, Long branchId, Boolean isActive) {}
+
+    /**
+     * Imports the stores read from the given input.
+     *
+     * CSV input starts with a header line naming the columns {@code name}, {@code address},
+     * {@code branchId} and optionally {@code isActive}, in any order. NDJSON input holds one
+     * object per line with the same fields; the branch may also be given as
+     * {@code "branch": {"id": ...}} like in {@code POST /api/stores}.
+     *
+     * @param in The input to read.
+     * @param format The format of the input.
+     * @param user The user performing the import.
+     * @return The number of imported and rejected rows, and the reasons rows were rejected.
+     * @throws IOException If the input cannot be read.
+     */
+    public StoreImportResult importStores(InputStream in, Format format, User user) throws IOException {
+        StoreImportResult result = new StoreImportResult();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        List<Row> chunk = new ArrayList<>(chunkSize);
+
+        List<String> header = null;
+        long lineNumber = 0;
+        String line;
+        try {
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) continue;
+                if (format == Format.CSV && header == null) {
+                    header = CsvUtils.parseLine(line.strip());
+                    continue;
+                }
+                try {
+                    chunk.add(format == Format.CSV ? parseCsv(lineNumber, line, header) : parseNdjson(lineNumber, line));
+                } catch (IllegalArgumentException e) {
+                    result.addError(lineNumber, e.getMessage());
+                }
+                if (chunk.size() == chunkSize) {
+                    importChunk(chunk, user, result);
+                    chunk.clear();
+                }
+            }
+            importChunk(chunk, user, result);
+        } finally {
+            // Once for the whole import: each rebuild reads every store
+            if (result.getImported() > 0) hierarchy.invalidate();
+        }
+        return result;
+    }
+
+    private Row parseCsv(long line, String text, List<String> header) {
+        List<String> fields = CsvUtils.parseLine(text);
+        if (fields.size() != header.size()) {
+            throw new IllegalArgumentException("Expected " + header.size() + " fields but found " + fields.size());
+        }
+        String name = null, address = null, branchId = null, isActive = null;
+        for (int i = 0; i < header.size(); i++) {
+            String value = fields.get(i).strip();
+            switch (header.get(i).strip()) {
+                case "name" -> name = value;
+                case "address" -> address = value;
+                case "branchId" -> branchId = value;
+                case "isActive" -> isActive = value;
+                default -> { }
+            }
+        }
+        return new Row(line, name, address, parseId(branchId),
+                isActive == null || isActive.isEmpty() ? null : Boolean.valueOf(isActive));
+    }
+
+    private Row parseNdjson(long line, String text) {
+        JsonNode node;
+        try {
+            node = objectMapper.readTree(text);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Malformed JSON");
+        }
+        if (!node.isObject()) throw new IllegalArgumentException("Expected a JSON object");
+        JsonNode branchId = node.hasNonNull("branchId") ? node.get("branchId") : node.path("branch").path("id");
+        return new Row(line,
+                node.hasNonNull("name") ? node.get("name").asText() : null,
+                node.hasNonNull("address") ? node.get("address").asText() : null,
+                branchId.isMissingNode() || branchId.isNull() ? null : parseId(branchId.asText()),
+                node.hasNonNull("isActive") ? node.get("isActive").asBoolean() : null);
+    }
+
+    private static Long parseId(String value) {
+        if (value == null || value.isEmpty()) return null;
+        try {
+            return Long.valueOf(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid branch id: " + value);
+        }
+    }
+
+    private void importChunk(List<Row> chunk, User user, StoreImportResult result) {
+        if (chunk.isEmpty()) return;
+
+        Set<Long> requested = chunk.stream()
+                .map(Row::branchId)
+                .filter(id -> id != null)
+                .collect(Collectors.toSet());
+        Set<Long> branchIds = requested.isEmpty() ? Set.of() : new HashSet<>(branchRepository.findExistingIds(requested));
+
+        List<Row> rows = new ArrayList<>(chunk.size());
+        List<Store> stores = new ArrayList<>(chunk.size());
+        for (Row row : chunk) {
+            Store store = new Store();
+            store.setName(row.name());
+            store.setAddress(row.address());
+            if (row.isActive() != null) store.setIsActive(row.isActive());
+
+            Set<ConstraintViolation<Store>> violations = new HashSet<>(validator.validateProperty(store, "name"));
+            violations.addAll(validator.validateProperty(store, "address"));
+            if (!violations.isEmpty()) {
+                result.addError(row.line(), violations.stream()
+                        .map(v -> v.getPropertyPath() + " " + v.getMessage())
+                        .sorted()
+                        .collect(Collectors.joining(", ")));
+            } else if (row.branchId() == null) {
+                result.addError(row.line(), "Branch must be provided");
+            } else if (!branchIds.contains(row.branchId())) {
+                result.addError(row.line(), "Branch not found");
+            } else {
+                rows.add(row);
+                stores.add(store);
+            }
+        }
+        if (stores.isEmpty()) return;
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                for (int i = 0; i < stores.size(); i++) {
+                    stores.get(i).setBranch(branchRepository.getReferenceById(rows.get(i).branchId()));
+                }
+                for (Store saved : repo.saveAll(stores)) {
+                    searchIndex.storeSaved(saved);
+                    auditLogService.log("stores", saved.getId(), user, "CREATE", null, AuditDiff.of(saved));
+                }
+                changes.changed(ChangeCounters.STORES);
+            });
+            result.addImported(stores.size());
+        } catch (RuntimeException e) {
+            for (Row row : rows) {
+                result.addError(row.line(), "Import failed: " + e.getMessage());
+            }
+        }
+    }
+}
@@ -1,13 +1,34 @@
 package com.indomarco.indostore.service;
 
+import com.indomarco.indostore.cache.ChangeCounters;
+import com.indomarco.indostore.cache.HierarchySnapshotCache;
+import com.indomarco.indostore.cache.SummaryRegistry;
+import com.indomarco.indostore.cache.WhitelistStoreCache;
+import com.indomarco.indostore.dto.BranchSummary;
+import com.indomarco.indostore.dto.StoreSummary;
 import com.indomarco.indostore.entity.Store;
 import com.indomarco.indostore.entity.User;
 import com.indomarco.indostore.repository.BranchRepository;
 import com.indomarco.indostore.repository.StoreRepository;
+import com.indomarco.indostore.search.SearchIndex;
+import com.indomarco.indostore.utility.AuditDiff;
+import com.indomarco.indostore.utility.CursorPage;
+import com.indomarco.indostore.utility.FieldSelection;
 import jakarta.transaction.Transactional;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
-import static com.indomarco.indostore.utility.PaginationUtils.paginate;
+import static com.indomarco.indostore.utility.PaginationUtils.checkPageSize;
+import static com.indomarco.indostore.utility.PaginationUtils.cursorPage;
+import static com.indomarco.indostore.utility.PaginationUtils.decodeCursor;
+import static com.indomarco.indostore.utility.PaginationUtils.pageRequest;
+import static com.indomarco.indostore.utility.VersionUtils.checkVersion;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * Service class for managing Store entities.
@@ -17,9 +38,17 @@ import java.util.List;
  */
 @Service
 public class StoreService {
+    /** The associations {@link #shape(List, FieldSelection)} can embed. */
+    public static final Set<String> EXPANSIONS = Set.of("branch");
+
     private final StoreRepository repo;
     private final AuditLogService auditLogService;
     private final BranchRepository branchRepository;
+    private final WhitelistStoreCache whitelistCache;
+    private final SearchIndex searchIndex;
+    private final HierarchySnapshotCache hierarchy;
+    private final SummaryRegistry registry;
+    private final ChangeCounters changes;
 
     /**
      * Constructor for StoreService.
@@ -27,11 +56,23 @@ public class StoreService {
      * @param repo The StoreRepository used for database operations.
      * @param auditLogService The AuditLogService used to log changes.
      * @param branchRepository The BranchRepository used to validate branch references.
+     * @param whitelistCache The cache of whitelisted stores, invalidated when one of them changes.
+     * @param searchIndex The search index updated on every change.
+     * @param hierarchy The hierarchy snapshot of provinces, branches and stores, rebuilt on every change.
+     * @param registry The registry stores are looked up by ID in, updated on every change.
+     * @param changes The change counters the ETags are derived from, moved on every change.
      */
-    public StoreService(StoreRepository repo, AuditLogService auditLogService, BranchRepository branchRepository) {
+    public StoreService(StoreRepository repo, AuditLogService auditLogService, BranchRepository branchRepository,
+                        WhitelistStoreCache whitelistCache, SearchIndex searchIndex, HierarchySnapshotCache hierarchy,
+                        SummaryRegistry registry, ChangeCounters changes) {
         this.repo = repo;
         this.auditLogService = auditLogService;
         this.branchRepository = branchRepository;
+        this.whitelistCache = whitelistCache;
+        this.searchIndex = searchIndex;
+        this.hierarchy = hierarchy;
+        this.registry = registry;
+        this.changes = changes;
     }
 
     /**
@@ -51,7 +92,10 @@ public class StoreService {
         store.setBranch(branch);
 
         Store saved = repo.save(store);
-        auditLogService.log("stores", saved.getId(), user, "CREATE", null, saved.toString());
+        searchIndex.storeSaved(saved);
+        hierarchy.invalidate();
+        changes.changed(ChangeCounters.STORES);
+        auditLogService.log("stores", saved.getId(), user, "CREATE", null, AuditDiff.of(saved));
         return saved;
     }
 
@@ -60,11 +104,26 @@ public class StoreService {
      *
      * @param page The page number (0-based).
      * @param size The number of items per page.
-     * @return A paginated list of stores.
+     * @return The requested page of store projections, including the total count.
      */
-    public List<Store> all(int page, int size) {
-        List<Store> stores = repo.findByIsActiveTrueAndIsDeletedFalse();
-        return paginate(stores, page, size);
+    public Page<StoreSummary> all(int page, int size) {
+        return repo.findActiveSummaries(pageRequest(page, size));
+    }
+
+    /**
+     * Returns the active and not deleted stores that follow the given cursor, in ID order.
+     *
+     * Seeks on the primary key instead of skipping rows, so every page costs the same
+     * no matter how deep into the listing it is.
+     *
+     * @param cursor The cursor returned with the previous page, or blank to start from the first store.
+     * @param size The number of items per page.
+     * @return The page of stores and the cursor of the following page.
+     */
+    public CursorPage<StoreSummary> after(String cursor, int size) {
+        checkPageSize(size);
+        List<StoreSummary> rows = repo.findActiveSummariesAfter(decodeCursor(cursor), Limit.of(size + 1));
+        return cursorPage(rows, size, StoreSummary::id);
     }
 
     /**
@@ -77,18 +136,54 @@ public class StoreService {
         return repo.findById(id).orElseThrow(() -> new RuntimeException("Store not found"));
     }
 
+    /**
+     * Retrieves the projection of a store by its ID, from {@link SummaryRegistry}.
+     *
+     * Lookups of a store are answered from memory after the first one, until the store changes.
+     *
+     * @param id The ID of the store.
+     * @return The store projection.
+     * @throws RuntimeException If the store is not found.
+     */
+    public StoreSummary getSummary(Long id) {
+        return registry.getStore(id).orElseThrow(() -> new RuntimeException("Store not found"));
+    }
+
+    /**
+     * Returns the ETag of the projection of a store, without serializing it.
+     *
+     * Combines the {@code version} of the store, which moves on every change to the store
+     * itself, with the change counters of the branches and whitelist entries, whose columns
+     * the projection also holds. The counters are read before the store, so a change racing
+     * with the lookup moves the tag rather than being missed.
+     *
+     * @param id The ID of the store.
+     * @return The unquoted strong ETag.
+     * @throws RuntimeException If the store is not found.
+     */
+    public String summaryTag(Long id) {
+        long branches = changes.get(ChangeCounters.BRANCHES);
+        long whitelist = changes.get(ChangeCounters.WHITELIST_STORES);
+        return changes.etag(id, getSummary(id).version(), branches, whitelist);
+    }
+
     /**
      * Updates an existing store and logs the changes.
      *
+     * When the data carries the {@code version} the client read, the update is refused if
+     * the store has changed since. The new version is flushed so that it is returned.
+     *
      * @param id The ID of the store to update.
      * @param data The new store data.
      * @param user The user performing the update.
      * @return The updated Store entity.
+     * @throws ObjectOptimisticLockingFailureException If the store changed since the client read it.
      */
     @Transactional
     public Store update(Long id, Store data, User user) {
         Store store = get(id);
-        String old = store.toString();
+        checkVersion(Store.class, id, data.getVersion(), store.getVersion());
+        AuditDiff.State old = AuditDiff.of(store);
         store.setName(data.getName());
         store.setAddress(data.getAddress());
         store.setIsActive(data.getIsActive());
@@ -99,8 +194,15 @@ public class StoreService {
                     .orElseThrow(() -> new RuntimeException("Branch not found"));
             store.setBranch(branch);
         }
-        Store updated = repo.save(store);
-        auditLogService.log("stores", id, user, "UPDATE", old, updated.toString());
+        Store updated = repo.saveAndFlush(store);
+        searchIndex.storeSaved(updated);
+        hierarchy.invalidate();
+        registry.storeChanged(id);
+        if (updated.getWhitelistStore() != null) {
+            whitelistCache.invalidate();
+        }
+        changes.changed(ChangeCounters.STORES);
+        auditLogService.log("stores", id, user, "UPDATE", old, AuditDiff.of(updated));
         return updated;
     }
 
@@ -113,9 +215,40 @@ public class StoreService {
     @Transactional
     public void delete(Long id, User user) {
         Store store = get(id);
+        AuditDiff.State old = AuditDiff.of(store);
         store.setIsDeleted(true);
         repo.save(store);
-        auditLogService.log("stores", id, user, "DELETE", store.toString(), null);
+        searchIndex.storeSaved(store);
+        hierarchy.invalidate();
+        registry.storeChanged(id);
+        if (store.getWhitelistStore() != null) {
+            whitelistCache.invalidate();
+        }
+        changes.changed(ChangeCounters.STORES);
+        auditLogService.log("stores", id, user, "DELETE", old, AuditDiff.of(store));
     }
-}
 
+    /**
+     * Renders listed stores with only the requested fields and associations.
+     *
+     * The branches are read with one query for all the stores of the page, and only when asked for.
+     *
+     * @param stores The stores of a page.
+     * @param selection The fields and associations asked for.
+     * @return The stores unchanged when nothing specific was asked for, otherwise one map per store.
+     */
+    public List<?> shape(List<StoreSummary> stores, FieldSelection selection) {
+        if (selection.isDefault()) return stores;
+
+        Map<Long, BranchSummary> branches = selection.expands("branch") && !stores.isEmpty()
+                ? branchRepository.findSummariesByIdIn(stores.stream().map(StoreSummary::branchId).distinct().toList())
+                        .stream().collect(Collectors.toMap(BranchSummary::id, Function.identity()))
+                : Map.of();
+
+        return stores.stream().map(store -> {
+            Map<String, Object> rendered = selection.render(store);
+            if (selection.expands("branch")) rendered.put("branch", branches.get(store.branchId()));
+            return rendered;
+        }).toList();
+    }
+}
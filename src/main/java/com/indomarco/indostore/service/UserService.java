@@ -3,10 +3,16 @@ package com.indomarco.indostore.service;
 import com.indomarco.indostore.entity.User;
 import com.indomarco.indostore.repository.UserRepository;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.time.Duration;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -14,17 +20,35 @@ import java.util.UUID;
  * Service class for managing User entities.
  * 
  * Provides functionality for registering users, logging in, and finding users by token.
+ * Token lookups are served from a bounded in-memory cache whose entries expire after
+ * {@code indostore.auth.token-cache.ttl}, so authenticating a request does not cost
+ * a database round trip.
  */
 @Service
 public class UserService {
     private final UserRepository repo;
+    private final Cache<String, User> tokenCache;
 
     /**
      * Constructor for UserService.
      *
      * @param repo The UserRepository used for database operations.
+     * @param maxSize The maximum number of tokens kept in the cache.
+     * @param ttl How long a token stays cached after it was loaded.
+     * @param registry The MeterRegistry the cache statistics are published to.
      */
-    public UserService(UserRepository repo) { this.repo = repo; }
+    public UserService(UserRepository repo,
+                       @Value("${indostore.auth.token-cache.max-size:10000}") long maxSize,
+                       @Value("${indostore.auth.token-cache.ttl:15m}") Duration ttl,
+                       MeterRegistry registry) {
+        this.repo = repo;
+        this.tokenCache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(registry, tokenCache, "auth-tokens");
+    }
 
     /**
      * Registers a new user.
@@ -42,6 +66,8 @@ public class UserService {
     /**
      * Logs in a user and generates a token.
      *
+     * The previous token of the user is evicted from the cache and the new one is cached.
+     *
      * @param email The user's email.
      * @param password The user's password.
      * @return A newly generated token for the user session.
@@ -52,20 +78,30 @@ public class UserService {
             throw new RuntimeException("Invalid credentials");
         }
         User user = found.get();
+        String oldToken = user.getToken();
         String token = UUID.randomUUID().toString();
         user.setToken(token);
-        repo.save(user);
+        User saved = repo.save(user);
+        if (oldToken != null) {
+            tokenCache.invalidate(oldToken);
+        }
+        tokenCache.put(token, saved);
         return token;
     }
 
      /**
      * Finds a user by their authentication token.
      *
+     * Unknown tokens are not cached, so guessing tokens cannot fill the cache.
+     *
      * @param token The token to search for.
      * @return The User entity associated with the token.
      */
     public User findByToken(String token) {
-        return repo.findByToken(token)
-            .orElseThrow(() -> new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Invalid token"));
+        User user = tokenCache.get(token, key -> repo.findByToken(key).orElse(null));
+        if (user == null) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Invalid token");
+        }
+        return user;
     }
 }
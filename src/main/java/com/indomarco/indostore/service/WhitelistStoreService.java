@@ -1,16 +1,22 @@
 package com.indomarco.indostore.service;
 
+import com.indomarco.indostore.cache.ChangeCounters;
+import com.indomarco.indostore.cache.HierarchySnapshotCache;
+import com.indomarco.indostore.cache.SummaryRegistry;
+import com.indomarco.indostore.cache.WhitelistStoreCache;
+import com.indomarco.indostore.dto.StoreSummary;
 import com.indomarco.indostore.entity.WhitelistStore;
 import com.indomarco.indostore.entity.Store;
 import com.indomarco.indostore.entity.User;
 import com.indomarco.indostore.repository.StoreRepository;
 import com.indomarco.indostore.repository.WhitelistStoreRepository;
+import com.indomarco.indostore.utility.AuditDiff;
 
 import jakarta.transaction.Transactional;
 
+import org.springframework.data.domain.Page;
 import org.springframework.stereotype.Service;
-import static com.indomarco.indostore.utility.PaginationUtils.paginate;
-import java.util.List;
+import static com.indomarco.indostore.utility.PaginationUtils.toPage;
 
 /**
  * Service class for managing WhitelistStore entities.
@@ -22,6 +28,10 @@ public class WhitelistStoreService {
     private final WhitelistStoreRepository repo;
     private final StoreRepository storeRepository;
     private final AuditLogService auditLogService;
+    private final WhitelistStoreCache whitelistCache;
+    private final HierarchySnapshotCache hierarchy;
+    private final SummaryRegistry registry;
+    private final ChangeCounters changes;
 
     /**
      * Constructor for WhitelistStoreService.
@@ -29,12 +39,22 @@ public class WhitelistStoreService {
      * @param repo The WhitelistStoreRepository used for database operations.
      * @param auditLogService The AuditLogService used to log changes.
      * @param storeRepository The StoreRepository used to validate store references.
+     * @param whitelistCache The cache of whitelisted stores, invalidated on every change.
+     * @param hierarchy The hierarchy snapshot, rebuilt on every change since it holds the whitelist entry of each store.
+     * @param registry The registry of stores by ID, updated on every change for the same reason.
+     * @param changes The change counters the ETags are derived from, moved on every change.
      */
     public WhitelistStoreService(WhitelistStoreRepository repo, StoreRepository storeRepository,
-                                 AuditLogService auditLogService) {
+                                 AuditLogService auditLogService, WhitelistStoreCache whitelistCache,
+                                 HierarchySnapshotCache hierarchy, SummaryRegistry registry,
+                                 ChangeCounters changes) {
         this.repo = repo;
         this.storeRepository = storeRepository;
         this.auditLogService = auditLogService;
+        this.whitelistCache = whitelistCache;
+        this.hierarchy = hierarchy;
+        this.registry = registry;
+        this.changes = changes;
     }
 
     /**
@@ -55,23 +75,23 @@ public class WhitelistStoreService {
         }
         whiteliststore.setStore(store);
         WhitelistStore saved = repo.save(whiteliststore);
-        auditLogService.log("whitelist_stores", saved.getStore().getId(), user, "CREATE", null, saved.toString());
+        whitelistCache.invalidate();
+        hierarchy.invalidate();
+        registry.whitelistChanged();
+        changes.changed(ChangeCounters.WHITELIST_STORES);
+        auditLogService.log("whitelist_stores", saved.getStore().getId(), user, "CREATE", null, AuditDiff.of(saved));
         return saved;
     }
 
     /**
-     * Returns a paginated list of active whitelist stores.
+     * Returns a paginated list of active whitelist stores, served from {@link WhitelistStoreCache}.
      *
      * @param page The page number (starting from 0).
      * @param size The page size.
-     * @return List of stores in the whitelist.
+     * @return The requested page of whitelisted stores, including the total count.
      */
-    public List<Store> all(int page, int size) {
-        List<Store> whitelistStores = repo.findAll().stream()
-            .map(whiteliststore -> whiteliststore.getStore())
-            .filter(store -> store.getIsActive() && !store.getIsDeleted())
-            .toList();
-        return paginate(whitelistStores, page, size);
+    public Page<StoreSummary> all(int page, int size) {
+        return toPage(whitelistCache.get(), page, size);
     }
 
     /**
@@ -99,13 +119,17 @@ public class WhitelistStoreService {
         Store newStore = storeRepository.findById(data.getStore().getId())
                 .orElseThrow(() -> new RuntimeException("Store not found"));
 
-        String old = existing.toString();
+        AuditDiff.State old = AuditDiff.of(existing);
 
         existing.setStore(newStore);
 
         WhitelistStore updated = repo.save(existing);
+        whitelistCache.invalidate();
+        hierarchy.invalidate();
+        registry.whitelistChanged();
+        changes.changed(ChangeCounters.WHITELIST_STORES);
 
-        auditLogService.log("whitelist_stores", id, user, "UPDATE", old, updated.toString());
+        auditLogService.log("whitelist_stores", id, user, "UPDATE", old, AuditDiff.of(updated));
         return updated;
     }
 
@@ -114,11 +138,17 @@ public class WhitelistStoreService {
      *
      * @param id   The ID of the whitelist store to delete.
      * @param user The user performing the deletion.
+     * @throws RuntimeException If the whitelist store is not found.
      */
     @Transactional
     public void delete(Long id, User user) {
+        AuditDiff.State old = AuditDiff.of(get(id));
         repo.deleteByIdCustom(id);
-        auditLogService.log("whitelist_stores", id, user, "DELETE", null, null);
+        whitelistCache.invalidate();
+        hierarchy.invalidate();
+        registry.whitelistChanged();
+        changes.changed(ChangeCounters.WHITELIST_STORES);
+        auditLogService.log("whitelist_stores", id, user, "DELETE", old, null);
     }
 
 }
@@ -0,0 +1,150 @@
+package com.indomarco.indostore.utility;
+
+import com.indomarco.indostore.entity.Branch;
+import com.indomarco.indostore.entity.Province;
+import com.indomarco.indostore.entity.Store;
+import com.indomarco.indostore.entity.WhitelistStore;
+
+import java.util.Objects;
+
+/**
+ * Utility class for building the old and new values recorded in the audit log.
+ *
+ * The audited fields of an entity are captured as a {@link State} before and after a change,
+ * and {@link #between(State, State)} renders only the fields that differ as compact JSON, e.g.
+ * {@code {"name":"Old"}} and {@code {"name":"New"}}. Associations are captured by ID only,
+ * read from the association without loading it, so capturing never triggers a lazy load.
+ */
+public class AuditDiff {
+    private static final String[] PROVINCE_FIELDS = {"name", "isActive", "isDeleted"};
+    private static final String[] BRANCH_FIELDS = {"name", "isActive", "isDeleted", "provinceId"};
+    private static final String[] STORE_FIELDS = {"name", "address", "isActive", "isDeleted", "branchId"};
+    private static final String[] WHITELIST_STORE_FIELDS = {"storeId"};
+
+    /**
+     * The audited fields of an entity at one point in time.
+     *
+     * @param fields The names of the fields, shared by every state of the same type.
+     * @param values The values of the fields, in the same order.
+     */
+    public record State(String[] fields, Object[] values) {
+    }
+
+    /**
+     * The old and new values of the fields that changed.
+     *
+     * @param oldValue JSON object of the changed fields before the change, or null when there was nothing before.
+     * @param newValue JSON object of the changed fields after the change, or null when there is nothing after.
+     */
+    public record Change(String oldValue, String newValue) {
+    }
+
+    /**
+     * Captures the audited fields of a province.
+     *
+     * @param province The province.
+     * @return The captured state.
+     */
+    public static State of(Province province) {
+        return new State(PROVINCE_FIELDS, new Object[]{
+                province.getName(), province.getIsActive(), province.getIsDeleted()});
+    }
+
+    /**
+     * Captures the audited fields of a branch, with its province by ID.
+     *
+     * @param branch The branch.
+     * @return The captured state.
+     */
+    public static State of(Branch branch) {
+        Province province = branch.getProvince();
+        return new State(BRANCH_FIELDS, new Object[]{
+                branch.getName(), branch.getIsActive(), branch.getIsDeleted(),
+                province == null ? null : province.getId()});
+    }
+
+    /**
+     * Captures the audited fields of a store, with its branch by ID.
+     *
+     * @param store The store.
+     * @return The captured state.
+     */
+    public static State of(Store store) {
+        Branch branch = store.getBranch();
+        return new State(STORE_FIELDS, new Object[]{
+                store.getName(), store.getAddress(), store.getIsActive(), store.getIsDeleted(),
+                branch == null ? null : branch.getId()});
+    }
+
+    /**
+     * Captures the audited fields of a whitelist entry, with its store by ID.
+     *
+     * @param whitelistStore The whitelist entry.
+     * @return The captured state.
+     */
+    public static State of(WhitelistStore whitelistStore) {
+        Store store = whitelistStore.getStore();
+        return new State(WHITELIST_STORE_FIELDS, new Object[]{store == null ? null : store.getId()});
+    }
+
+    /**
+     * Renders the fields that differ between two states of the same entity.
+     *
+     * A missing state stands for an entity that did not exist yet, or no longer exists:
+     * every field of the other state is rendered, and its side of the change is null.
+     *
+     * @param before The state before the change, or null for a creation.
+     * @param after The state after the change, or null for a removal.
+     * @return The change; both values are null when nothing changed.
+     */
+    public static Change between(State before, State after) {
+        if (before == null && after == null) return new Change(null, null);
+        String[] fields = before != null ? before.fields() : after.fields();
+        StringBuilder oldJson = before == null ? null : new StringBuilder(64).append('{');
+        StringBuilder newJson = after == null ? null : new StringBuilder(64).append('{');
+        boolean changed = false;
+        for (int i = 0; i < fields.length; i++) {
+            Object oldValue = before == null ? null : before.values()[i];
+            Object newValue = after == null ? null : after.values()[i];
+            if (before != null && after != null && Objects.equals(oldValue, newValue)) continue;
+            if (oldJson != null) appendField(oldJson, changed, fields[i], oldValue);
+            if (newJson != null) appendField(newJson, changed, fields[i], newValue);
+            changed = true;
+        }
+        if (!changed) return new Change(null, null);
+        return new Change(oldJson == null ? null : oldJson.append('}').toString(),
+                newJson == null ? null : newJson.append('}').toString());
+    }
+
+    private static void appendField(StringBuilder json, boolean comma, String field, Object value) {
+        if (comma) json.append(',');
+        json.append('"').append(field).append("\":");
+        if (value == null || value instanceof Boolean || value instanceof Number) {
+            json.append(value);
+        } else {
+            appendString(json, value.toString());
+        }
+    }
+
+    private static void appendString(StringBuilder json, String value) {
+        json.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> json.append("\\\"");
+                case '\\' -> json.append("\\\\");
+                case '\n' -> json.append("\\n");
+                case '\r' -> json.append("\\r");
+                case '\t' -> json.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        json.append("\\u00").append(Character.forDigit(c >> 4, 16)).append(Character.forDigit(c & 0xf, 16));
+                    } else {
+                        json.append(c);
+                    }
+                }
+            }
+        }
+        json.append('"');
+    }
+}
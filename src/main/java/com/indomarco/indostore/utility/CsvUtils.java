@@ -0,0 +1,78 @@
+package com.indomarco.indostore.utility;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Utility class for reading and writing CSV records (RFC 4180 quoting, one record per line).
+ */
+public class CsvUtils {
+    /**
+     * Splits one CSV line into its fields.
+     *
+     * Fields may be enclosed in double quotes, in which case they can contain commas
+     * and doubled quotes ({@code ""}) standing for a literal quote. Line breaks inside
+     * fields are not supported.
+     *
+     * @param line The line to split.
+     * @return The unquoted fields of the line.
+     * @throws IllegalArgumentException If a quoted field is not closed.
+     */
+    public static List<String> parseLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) throw new IllegalArgumentException("Unterminated quoted field");
+        fields.add(field.toString());
+        return fields;
+    }
+
+    /**
+     * Writes one CSV line holding the given values.
+     *
+     * Null values are written as empty fields. Values containing a comma, a quote or a
+     * line break are quoted.
+     *
+     * @param out The writer to write the line to.
+     * @param values The values of the line.
+     * @throws IOException If the writer fails.
+     */
+    public static void writeLine(Writer out, Object... values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) out.write(',');
+            if (values[i] == null) continue;
+            String value = values[i].toString();
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0
+                    && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+                out.write(value);
+            } else {
+                out.write('"');
+                out.write(value.replace("\"", "\"\""));
+                out.write('"');
+            }
+        }
+        out.write('\n');
+    }
+}
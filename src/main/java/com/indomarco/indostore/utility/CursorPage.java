@@ -0,0 +1,14 @@
+package com.indomarco.indostore.utility;
+
+import java.util.List;
+
+/**
+ * One page of a keyset (cursor) paginated listing.
+ *
+ * @param content    The items of the page, in ID order.
+ * @param nextCursor The opaque cursor to request the following page with,
+ *                   or {@code null} when this is the last page.
+ * @param <T>        The type of elements in the page.
+ */
+public record CursorPage<T>(List<T> content, String nextCursor) {
+}
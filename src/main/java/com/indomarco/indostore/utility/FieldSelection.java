@@ -0,0 +1,135 @@
+package com.indomarco.indostore.utility;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.RecordComponent;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The fields and associations a client asked for with the {@code fields} and
+ * {@code expand} query parameters.
+ *
+ * {@code fields} is a comma-separated list of the components of the listed record to
+ * return; when it is absent every component is returned. {@code expand} is a
+ * comma-separated list of associations to embed; the service owning the listing
+ * queries only the associations asked for.
+ */
+public final class FieldSelection {
+    private static final Map<Class<?>, RecordComponent[]> COMPONENTS = new ConcurrentHashMap<>();
+
+    private final Set<String> fields;
+    private final Set<String> expand;
+
+    private FieldSelection(Set<String> fields, Set<String> expand) {
+        this.fields = fields;
+        this.expand = expand;
+    }
+
+    /**
+     * Parses the {@code fields} and {@code expand} query parameters of a listing.
+     *
+     * @param fields The requested fields, comma-separated, or null for all fields.
+     * @param expand The associations to embed, comma-separated, or null for none.
+     * @param type The record type of the listed rows.
+     * @param expandable The associations the listing can embed.
+     * @return The selection.
+     * @throws IllegalArgumentException If a field is not a component of the type or an association cannot be embedded.
+     */
+    public static FieldSelection parse(String fields, String expand, Class<? extends Record> type,
+                                       Set<String> expandable) {
+        Set<String> selectedFields = split(fields);
+        Set<String> known = new LinkedHashSet<>();
+        for (RecordComponent component : components(type)) {
+            known.add(component.getName());
+        }
+        for (String field : selectedFields) {
+            if (!known.contains(field)) throw new IllegalArgumentException("Unknown field: " + field);
+        }
+        Set<String> expansions = split(expand);
+        for (String association : expansions) {
+            if (!expandable.contains(association)) throw new IllegalArgumentException("Cannot expand: " + association);
+        }
+        return new FieldSelection(selectedFields, expansions);
+    }
+
+    private static Set<String> split(String value) {
+        if (value == null || value.isBlank()) return Set.of();
+        Set<String> parts = new LinkedHashSet<>();
+        for (String part : value.split(",")) {
+            if (!part.isBlank()) parts.add(part.strip());
+        }
+        return parts;
+    }
+
+    /** Returns whether the client asked for neither specific fields nor associations. */
+    public boolean isDefault() {
+        return fields.isEmpty() && expand.isEmpty();
+    }
+
+    /**
+     * Returns whether the client asked to embed the given association.
+     *
+     * @param association The name of the association.
+     * @return True when it is listed in {@code expand}.
+     */
+    public boolean expands(String association) {
+        return expand.contains(association);
+    }
+
+    /**
+     * Adds an embedded association to a rendered row, keeping at most {@code max} of its rows.
+     *
+     * Alongside the association, {@code <association>Count} holds how many rows it has in
+     * all and {@code <association>Truncated} whether some of them were left out; the rest
+     * are read from the listing of the association itself.
+     *
+     * @param rendered The rendered row, as returned by {@link #render(Record)}.
+     * @param association The name of the association.
+     * @param rows All the rows of the association, in the order they are listed in.
+     * @param max The largest number of rows to embed.
+     */
+    public static void embed(Map<String, Object> rendered, String association, List<?> rows, int max) {
+        rendered.put(association, rows.size() > max ? rows.subList(0, max) : rows);
+        rendered.put(association + "Count", rows.size());
+        rendered.put(association + "Truncated", rows.size() > max);
+    }
+
+    /**
+     * Copies the selected components of a row into a map, in declaration order,
+     * to which the service can add the embedded associations.
+     *
+     * @param row The row to render.
+     * @return A mutable map of the selected components.
+     */
+    public Map<String, Object> render(Record row) {
+        Map<String, Object> rendered = renderAll(row);
+        if (!fields.isEmpty()) rendered.keySet().retainAll(fields);
+        return rendered;
+    }
+
+    /**
+     * Copies every component of a row into a map, in declaration order.
+     *
+     * @param row The row to render.
+     * @return A mutable map of all components.
+     */
+    public static Map<String, Object> renderAll(Record row) {
+        Map<String, Object> rendered = new LinkedHashMap<>();
+        for (RecordComponent component : components(row.getClass())) {
+            try {
+                rendered.put(component.getName(), component.getAccessor().invoke(row));
+            } catch (IllegalAccessException | InvocationTargetException e) {
+                throw new IllegalStateException("Cannot read " + component.getName() + " of " + row, e);
+            }
+        }
+        return rendered;
+    }
+
+    private static RecordComponent[] components(Class<?> type) {
+        return COMPONENTS.computeIfAbsent(type, Class::getRecordComponents);
+    }
+}
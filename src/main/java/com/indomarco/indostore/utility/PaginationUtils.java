@@ -1,12 +1,42 @@
 package com.indomarco.indostore.utility;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.nio.ByteBuffer;
+import java.util.Base64;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
 
 /**
  * Utility class for handling pagination of lists.
  */
 public class PaginationUtils {
+    /** The largest page any listing returns, so one request cannot read a whole table. */
+    public static final int MAX_PAGE_SIZE = 500;
+
+    /**
+     * Checks that a requested page size is between one and {@link #MAX_PAGE_SIZE}.
+     *
+     * @param size The number of items per page.
+     * @throws IllegalArgumentException If the size is out of range.
+     */
+    public static void checkPageSize(int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Page size must not be less than one");
+        }
+        if (size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must not be greater than " + MAX_PAGE_SIZE);
+        }
+    }
+
     /**
      * Returns a paginated sublist of the given list.
      *
@@ -23,5 +53,153 @@ public class PaginationUtils {
         if (fromIndex >= list.size()) return Collections.emptyList();
         return list.subList(fromIndex, toIndex);
     }
-}
 
+    /**
+     * Builds a database page request ordered by ID so that pages are stable between calls.
+     *
+     * @param page The page number (0-based).
+     * @param size The number of items per page.
+     * @return A Pageable to pass to the repository.
+     * @throws IllegalArgumentException If the page is negative or the size is out of range.
+     */
+    public static Pageable pageRequest(int page, int size) {
+        checkPageSize(size);
+        return PageRequest.of(page, size, Sort.by("id"));
+    }
+
+    /**
+     * Returns one page of an in-memory list, with the same metadata as a database page.
+     *
+     * @param list The full list to paginate.
+     * @param page The page number (0-based).
+     * @param size The number of items per page.
+     * @param <T>  The type of elements in the list.
+     * @return The requested page, including the total count of the list.
+     */
+    public static <T> Page<T> toPage(List<T> list, int page, int size) {
+        Pageable pageable = pageRequest(page, size);
+        return new PageImpl<>(paginate(list, page, size), pageable, list.size());
+    }
+
+    /**
+     * Returns the pagination metadata of a page, to be sent alongside its content.
+     *
+     * @param page The page returned by the repository.
+     * @return A map containing page, size, totalElements and totalPages.
+     */
+    public static Map<String, Object> pageInfo(Page<?> page) {
+        return Map.of(
+                "page", page.getNumber(),
+                "size", page.getSize(),
+                "totalElements", page.getTotalElements(),
+                "totalPages", page.getTotalPages()
+        );
+    }
+
+    /**
+     * Builds a keyset page from the rows fetched after a cursor.
+     *
+     * The repository is expected to be asked for {@code size + 1} rows; the extra row
+     * only tells whether a following page exists and is not returned.
+     *
+     * @param rows  The rows fetched after the cursor, at most {@code size + 1}.
+     * @param size  The number of items per page.
+     * @param idOf  Extracts the ID the rows are ordered by.
+     * @param <T>   The type of elements in the page.
+     * @return The page, with a cursor pointing after its last item if more rows exist.
+     */
+    public static <T> CursorPage<T> cursorPage(List<T> rows, int size, ToLongFunction<T> idOf) {
+        return keysetPage(rows, size, row -> encodeCursor(idOf.applyAsLong(row)));
+    }
+
+    /**
+     * Builds a keyset page from the rows fetched after a cursor made of several keys.
+     *
+     * @param rows     The rows fetched after the cursor, at most {@code size + 1}.
+     * @param size     The number of items per page.
+     * @param cursorOf Builds the cursor pointing after a row.
+     * @param <T>      The type of elements in the page.
+     * @return The page, with a cursor pointing after its last item if more rows exist.
+     * @see #cursorPage(List, int, ToLongFunction)
+     */
+    public static <T> CursorPage<T> keysetPage(List<T> rows, int size, Function<T, String> cursorOf) {
+        if (rows.size() <= size) return new CursorPage<>(rows, null);
+        List<T> content = rows.subList(0, size);
+        return new CursorPage<>(content, cursorOf.apply(content.get(size - 1)));
+    }
+
+    /**
+     * Returns the pagination metadata of a keyset page, to be sent alongside its content.
+     *
+     * @param page The keyset page.
+     * @return A map containing size and nextCursor (null on the last page).
+     */
+    public static Map<String, Object> cursorInfo(CursorPage<?> page) {
+        Map<String, Object> info = new HashMap<>();
+        info.put("size", page.content().size());
+        info.put("nextCursor", page.nextCursor());
+        return info;
+    }
+
+    /**
+     * Encodes an ID into an opaque, URL-safe cursor.
+     *
+     * @param id The ID of the last item of a page.
+     * @return The cursor.
+     */
+    public static String encodeCursor(long id) {
+        byte[] bytes = ByteBuffer.allocate(Long.BYTES).putLong(id).array();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    /**
+     * Decodes a cursor produced by {@link #encodeCursor(long)}.
+     *
+     * @param cursor The cursor, or a blank value to start from the beginning.
+     * @return The ID to seek past (0 for a blank cursor).
+     * @throws IllegalArgumentException If the cursor is malformed.
+     */
+    public static long decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) return 0L;
+        byte[] bytes;
+        try {
+            bytes = Base64.getUrlDecoder().decode(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        if (bytes.length != Long.BYTES) throw new IllegalArgumentException("Invalid cursor");
+        return ByteBuffer.wrap(bytes).getLong();
+    }
+
+    /**
+     * Encodes a pair of keys, such as a timestamp and an ID, into an opaque, URL-safe cursor.
+     *
+     * @param first The first key of the last item of a page.
+     * @param second The second key of the last item of a page.
+     * @return The cursor.
+     */
+    public static String encodeCursor(long first, long second) {
+        byte[] bytes = ByteBuffer.allocate(2 * Long.BYTES).putLong(first).putLong(second).array();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    /**
+     * Decodes a cursor produced by {@link #encodeCursor(long, long)}.
+     *
+     * @param cursor The cursor, or a blank value to start from the beginning.
+     * @return The two keys to seek past, or null for a blank cursor.
+     * @throws IllegalArgumentException If the cursor is malformed.
+     */
+    public static long[] decodeCursorPair(String cursor) {
+        if (cursor == null || cursor.isBlank()) return null;
+        byte[] bytes;
+        try {
+            bytes = Base64.getUrlDecoder().decode(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        if (bytes.length != 2 * Long.BYTES) throw new IllegalArgumentException("Invalid cursor");
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        return new long[]{buffer.getLong(), buffer.getLong()};
+    }
+}
@@ -0,0 +1,31 @@
+package com.indomarco.indostore.utility;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Utility class for running work relative to the current transaction.
+ */
+public class TransactionUtils {
+    /**
+     * Runs the given action once the current transaction has committed,
+     * or immediately when no transaction is active.
+     *
+     * Used to publish changes (cache invalidation and the like) only once they are
+     * visible to other transactions, and never for a transaction that rolls back.
+     *
+     * @param action The action to run.
+     */
+    public static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,27 @@
+package com.indomarco.indostore.utility;
+
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+/**
+ * Utility class for checking the {@code @Version} a client sent back with an update.
+ */
+public class VersionUtils {
+    /**
+     * Checks that the version a client read is still the current version of an entity.
+     *
+     * Hibernate only compares versions for changes made concurrently within the same
+     * read-modify-save; this catches the client that read the entity earlier, in another
+     * request, and would otherwise overwrite the changes made since.
+     *
+     * @param type The entity type.
+     * @param id The ID of the entity.
+     * @param expected The version sent by the client, or null to skip the check.
+     * @param current The current version of the entity.
+     * @throws ObjectOptimisticLockingFailureException If the versions differ.
+     */
+    public static void checkVersion(Class<?> type, Object id, Long expected, Long current) {
+        if (expected != null && !expected.equals(current)) {
+            throw new ObjectOptimisticLockingFailureException(type, id);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.indomarco.indostore.cache;
+
+import com.indomarco.indostore.repository.BranchRepository;
+import com.indomarco.indostore.repository.ProvinceRepository;
+import com.indomarco.indostore.repository.StoreRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class HierarchySnapshotCacheTest {
+	private ProvinceRepository provinceRepository;
+	private HierarchySnapshotCache cache;
+
+	@BeforeEach
+	void setUp() {
+		provinceRepository = mock(ProvinceRepository.class);
+		BranchRepository branchRepository = mock(BranchRepository.class);
+		StoreRepository storeRepository = mock(StoreRepository.class);
+		when(branchRepository.findActiveSummaries(any())).thenReturn(Page.empty());
+		when(storeRepository.findActiveSummaries(any())).thenReturn(Page.empty());
+		cache = new HierarchySnapshotCache(provinceRepository, branchRepository, storeRepository,
+				mock(PlatformTransactionManager.class), Duration.ofMillis(10), new SimpleMeterRegistry());
+	}
+
+	@AfterEach
+	void tearDown() {
+		cache.destroy();
+	}
+
+	private void awaitVersion(long version) throws InterruptedException {
+		long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+		while (cache.get().getVersion() < version && System.nanoTime() < deadline) {
+			Thread.sleep(5);
+		}
+		assertEquals(version, cache.get().getVersion());
+	}
+
+	@Test
+	void rebuildsWhenAChangeCommitsDuringTheFirstBuild() throws InterruptedException {
+		// Outside a transaction, the invalidation takes effect at once, while the first snapshot is read
+		when(provinceRepository.findActiveSummaries(any())).thenAnswer(invocation -> {
+			cache.invalidate();
+			return new PageImpl<>(List.of());
+		}).thenReturn(new PageImpl<>(List.of()));
+
+		assertEquals(1, cache.get().getVersion());
+		awaitVersion(2);
+		verify(provinceRepository, timeout(1000).times(2)).findActiveSummaries(any());
+	}
+
+	@Test
+	void retriesAFailedRebuild() throws InterruptedException {
+		when(provinceRepository.findActiveSummaries(any()))
+				.thenReturn(new PageImpl<>(List.of()))
+				.thenThrow(new IllegalStateException("Connection refused"))
+				.thenThrow(new IllegalStateException("Connection refused"))
+				.thenReturn(new PageImpl<>(List.of()));
+
+		assertEquals(1, cache.get().getVersion());
+		cache.invalidate();
+		awaitVersion(2);
+		verify(provinceRepository, timeout(1000).times(4)).findActiveSummaries(any());
+	}
+}
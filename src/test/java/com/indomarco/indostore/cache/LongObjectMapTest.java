@@ -0,0 +1,160 @@
+package com.indomarco.indostore.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LongObjectMapTest {
+
+	@Test
+	void putReplacesAndRemoveDrops() {
+		LongObjectMap<String> map = new LongObjectMap<>();
+		map.put(1, "one");
+		map.put(1, "uno");
+		assertEquals("uno", map.get(1));
+		assertEquals(1, map.size());
+
+		map.remove(1);
+		map.remove(1);
+		assertNull(map.get(1));
+		assertEquals(0, map.size());
+
+		map.put(1, "one again");
+		assertEquals("one again", map.get(1));
+		assertEquals(1, map.size());
+	}
+
+	@Test
+	void keepsEveryKeyAcrossGrowthAndRemovals() {
+		LongObjectMap<Long> map = new LongObjectMap<>();
+		int count = 200_000;
+		for (long key = 0; key < count; key++) {
+			map.put(key * 31, key);
+		}
+		assertEquals(count, map.size());
+
+		// Removed keys stay in the probe sequences of the keys stored after them
+		for (long key = 0; key < count; key += 2) {
+			map.remove(key * 31);
+		}
+		for (long key = 0; key < count; key++) {
+			if (key % 2 == 0) assertNull(map.get(key * 31));
+			else assertEquals(key, map.get(key * 31));
+		}
+		assertEquals(count / 2, map.size());
+
+		// Growing again drops the removed slots and keeps the live keys
+		for (long key = count; key < count * 2; key++) {
+			map.put(key * 31, key);
+		}
+		for (long key = 1; key < count * 2; key += 2) {
+			assertEquals(key, map.get(key * 31));
+		}
+		assertEquals(count * 3 / 2, map.size());
+	}
+
+	@Test
+	void handlesNegativeAndExtremeKeys() {
+		LongObjectMap<String> map = new LongObjectMap<>();
+		map.put(0, "zero");
+		map.put(-1, "minus one");
+		map.put(Long.MIN_VALUE, "min");
+		map.put(Long.MAX_VALUE, "max");
+		assertEquals("zero", map.get(0));
+		assertEquals("minus one", map.get(-1));
+		assertEquals("min", map.get(Long.MIN_VALUE));
+		assertEquals("max", map.get(Long.MAX_VALUE));
+		assertNull(map.get(1));
+	}
+
+	@Test
+	void clearDropsEverything() {
+		LongObjectMap<String> map = new LongObjectMap<>();
+		for (long key = 0; key < 1000; key++) {
+			map.put(key, "v" + key);
+		}
+		map.clear();
+		assertEquals(0, map.size());
+		assertNull(map.get(7));
+		map.put(7, "seven");
+		assertEquals("seven", map.get(7));
+	}
+
+	@Test
+	void rejectsNullValues() {
+		LongObjectMap<String> map = new LongObjectMap<>();
+		assertThrows(IllegalArgumentException.class, () -> map.put(1, null));
+		assertThrows(IllegalArgumentException.class, () -> map.putIfUnchanged(1, null, map.stamp(1)));
+	}
+
+	@Test
+	void putIfUnchangedStoresOnlyWithoutInterveningWrites() {
+		LongObjectMap<String> map = new LongObjectMap<>();
+		long stamp = map.stamp(42);
+		assertTrue(map.putIfUnchanged(42, "loaded", stamp));
+		assertEquals("loaded", map.get(42));
+
+		stamp = map.stamp(42);
+		map.remove(42);
+		assertFalse(map.putIfUnchanged(42, "stale", stamp));
+		assertNull(map.get(42));
+
+		stamp = map.stamp(42);
+		map.put(42, "written");
+		assertFalse(map.putIfUnchanged(42, "stale", stamp));
+		assertEquals("written", map.get(42));
+
+		stamp = map.stamp(42);
+		map.clear();
+		assertFalse(map.putIfUnchanged(42, "stale", stamp));
+		assertNull(map.get(42));
+	}
+
+	@Test
+	void readersNeverSeeAnotherKeysValue() throws Exception {
+		LongObjectMap<Long> map = new LongObjectMap<>();
+		AtomicBoolean done = new AtomicBoolean();
+		ExecutorService executor = Executors.newFixedThreadPool(3);
+		try {
+			Future<?> writer = executor.submit(() -> {
+				for (int round = 0; round < 20; round++) {
+					for (long key = 0; key < 20_000; key++) {
+						map.put(key, key);
+					}
+					for (long key = 0; key < 20_000; key += 3) {
+						map.remove(key);
+					}
+				}
+				done.set(true);
+			});
+			Runnable reader = () -> {
+				while (!done.get()) {
+					for (long key = 0; key < 20_000; key++) {
+						Long value = map.get(key);
+						if (value != null && value != key) {
+							throw new AssertionError("Key " + key + " mapped to " + value);
+						}
+					}
+				}
+			};
+			Future<?> first = executor.submit(reader);
+			Future<?> second = executor.submit(reader);
+			writer.get(60, TimeUnit.SECONDS);
+			first.get(60, TimeUnit.SECONDS);
+			second.get(60, TimeUnit.SECONDS);
+		} finally {
+			done.set(true);
+			executor.shutdownNow();
+		}
+	}
+}
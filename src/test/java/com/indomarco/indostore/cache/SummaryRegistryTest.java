@@ -0,0 +1,92 @@
+package com.indomarco.indostore.cache;
+
+import com.indomarco.indostore.dto.BranchSummary;
+import com.indomarco.indostore.dto.StoreSummary;
+import com.indomarco.indostore.repository.BranchRepository;
+import com.indomarco.indostore.repository.StoreRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SummaryRegistryTest {
+	private StoreRepository storeRepository;
+	private BranchRepository branchRepository;
+	private SummaryRegistry registry;
+
+	@BeforeEach
+	void setUp() {
+		storeRepository = mock(StoreRepository.class);
+		branchRepository = mock(BranchRepository.class);
+		registry = new SummaryRegistry(storeRepository, branchRepository, new SimpleMeterRegistry());
+	}
+
+	private static StoreSummary store(long id, String branchName) {
+		return new StoreSummary(id, "Store " + id, "Jl. Test " + id, true, 1L, branchName, 1L, null, 0L);
+	}
+
+	@Test
+	void loadsAStoreOnceAndServesItFromMemory() {
+		when(storeRepository.findSummaryById(7L)).thenReturn(Optional.of(store(7, "Branch")));
+
+		assertEquals("Store 7", registry.getStore(7).orElseThrow().name());
+		assertEquals("Store 7", registry.getStore(7).orElseThrow().name());
+		verify(storeRepository, times(1)).findSummaryById(7L);
+	}
+
+	@Test
+	void doesNotKeepMissingStores() {
+		when(storeRepository.findSummaryById(7L)).thenReturn(Optional.empty());
+
+		assertTrue(registry.getStore(7).isEmpty());
+		assertTrue(registry.getStore(7).isEmpty());
+		verify(storeRepository, times(2)).findSummaryById(7L);
+	}
+
+	@Test
+	void doesNotPublishALoadThatRacedWithAChange() {
+		// The store changes while it is being read: the loaded row may predate the change
+		when(storeRepository.findSummaryById(7L)).thenAnswer(invocation -> {
+			registry.storeChanged(7);
+			return Optional.of(store(7, "Old branch"));
+		}).thenReturn(Optional.of(store(7, "New branch")));
+
+		assertEquals("Old branch", registry.getStore(7).orElseThrow().branchName());
+		assertEquals("New branch", registry.getStore(7).orElseThrow().branchName());
+		assertEquals("New branch", registry.getStore(7).orElseThrow().branchName());
+		verify(storeRepository, times(2)).findSummaryById(7L);
+	}
+
+	@Test
+	void dropsStoresWhenTheirBranchChanges() {
+		when(storeRepository.findSummaryById(7L))
+				.thenReturn(Optional.of(store(7, "Old branch")))
+				.thenReturn(Optional.of(store(7, "New branch")));
+
+		registry.getStore(7);
+		registry.branchChanged(1);
+		assertEquals("New branch", registry.getStore(7).orElseThrow().branchName());
+	}
+
+	@Test
+	void dropsBranchesWhenAProvinceChanges() {
+		when(branchRepository.findSummariesByIdIn(anyCollection()))
+				.thenReturn(List.of(new BranchSummary(3L, "Branch", true, 1L, "Old province")))
+				.thenReturn(List.of(new BranchSummary(3L, "Branch", true, 1L, "New province")));
+
+		assertEquals("Old province", registry.getBranch(3).orElseThrow().provinceName());
+		assertEquals("Old province", registry.getBranch(3).orElseThrow().provinceName());
+		registry.provinceChanged();
+		assertEquals("New province", registry.getBranch(3).orElseThrow().provinceName());
+	}
+}
@@ -0,0 +1,82 @@
+package com.indomarco.indostore.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PrefixTrieTest {
+
+	private static List<Long> ids(List<PrefixTrie.Suggestion> suggestions) {
+		return suggestions.stream().map(PrefixTrie.Suggestion::id).toList();
+	}
+
+	@Test
+	void ranksNamesStartingWithThePrefixFirst() {
+		PrefixTrie trie = new PrefixTrie(10);
+		trie.put("store", 1, "Toko Jaya Makmur");
+		trie.put("store", 2, "Jaya Abadi");
+		trie.put("branch", 3, "Jaya Abadi");
+		trie.put("store", 4, "Toko Jaya");
+
+		assertEquals(List.of(3L, 2L, 4L, 1L), ids(trie.suggest("JA", 10)));
+		assertEquals(List.of(3L, 2L), ids(trie.suggest("ja", 2)));
+		assertEquals(List.of(1L), ids(trie.suggest("mak", 10)));
+		assertEquals(List.of(), trie.suggest("  ", 10));
+	}
+
+	@Test
+	void matchesPhrasesAtAnyWordStart() {
+		PrefixTrie trie = new PrefixTrie(10);
+		trie.put("store", 1, "Toko Maju Toko Jaya");
+		trie.put("store", 2, "Toko  Jaya Baru");
+		trie.put("store", 3, "Sumber Toko Jayanti");
+		trie.put("store", 4, "Toko Maju");
+
+		assertEquals(List.of(2L, 1L, 3L), ids(trie.suggest("toko ja", 10)));
+		assertEquals(List.of(2L), ids(trie.suggest("toko jaya b", 10)));
+		assertEquals(List.of(), trie.suggest("o ja", 10));
+		assertEquals(List.of(), trie.suggest("toko zz", 10));
+		assertEquals(List.of(), trie.suggest("zz toko", 10));
+	}
+
+	@Test
+	void looksUpWordsLongerThanTheLongestKey() {
+		PrefixTrie trie = new PrefixTrie(10);
+		String word = "a".repeat(PrefixTrie.MAX_KEY_LENGTH);
+		trie.put("store", 1, "Toko " + word + "b");
+		trie.put("store", 2, "Toko " + word + "c");
+
+		assertEquals(List.of(1L, 2L), ids(trie.suggest(word, 10)));
+		assertEquals(List.of(2L), ids(trie.suggest(word + "c", 10)));
+		assertEquals(List.of(1L), ids(trie.suggest("toko " + word + "b", 10)));
+	}
+
+	@Test
+	void keepsSuggestionsRightAcrossRenamesAndRemovals() {
+		PrefixTrie trie = new PrefixTrie(3);
+		List<PrefixTrie.Suggestion> names = new ArrayList<>();
+		for (long id = 1; id <= 2000; id++) {
+			names.add(new PrefixTrie.Suggestion("store", id, "Toko Maju " + id));
+		}
+		trie.putAll(names);
+		assertEquals(List.of(1L, 2L, 3L), ids(trie.suggest("toko", 3)));
+
+		// Removing the best names of a node brings up the next ones
+		for (long id = 1; id <= 1500; id++) {
+			trie.remove("store", id);
+		}
+		assertEquals(List.of(1501L, 1502L, 1503L), ids(trie.suggest("maju", 3)));
+
+		trie.put("store", 1600, "Toko Baru");
+		assertEquals(List.of(1600L), ids(trie.suggest("baru", 3)));
+		assertEquals(List.of(1501L, 1502L, 1503L), ids(trie.suggest("toko maju", 3)));
+		assertEquals(List.of(1600L, 1501L, 1502L), ids(trie.suggest("toko", 3)));
+
+		trie.put("store", 1600, null);
+		assertEquals(List.of(), trie.suggest("baru", 3));
+		assertEquals(499, trie.size());
+	}
+}
@@ -0,0 +1,136 @@
+package com.indomarco.indostore.service;
+
+import com.indomarco.indostore.entity.AuditLog;
+import com.indomarco.indostore.repository.AuditLogRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AuditJournalLoaderTest {
+	@TempDir
+	Path dir;
+
+	private final List<Long> saved = new ArrayList<>();
+	private AuditLogRepository repo;
+	private AuditJournalLoader loader;
+
+	@BeforeEach
+	void setUp() {
+		repo = mock(AuditLogRepository.class);
+		when(repo.saveAll(anyList())).thenAnswer(invocation -> {
+			List<AuditLog> batch = invocation.getArgument(0);
+			batch.forEach(entry -> saved.add(entry.getRecordId()));
+			return batch;
+		});
+		// Not started, so it only saves what the loader hands it
+		AuditLogWriter writer = new AuditLogWriter(repo, new TransactionTemplate(mock(PlatformTransactionManager.class)),
+				10, 2, Duration.ofMillis(10), Duration.ofMillis(10), Duration.ofMillis(10), 1, new SimpleMeterRegistry());
+		// Closed, so that the segment written by the test counts as sealed
+		AuditJournal journal = new AuditJournal(dir, DataSize.ofKilobytes(64), "journal");
+		loader = new AuditJournalLoader(journal, writer, 2, Duration.ofSeconds(1), new SimpleMeterRegistry());
+	}
+
+	private Path segment() {
+		return AuditJournalTest.journal(dir, AuditJournalTest.entry(1L, null, "{}"),
+				AuditJournalTest.entry(2L, null, "{}"), AuditJournalTest.entry(3L, null, "{}"));
+	}
+
+	@Test
+	void loadsEverySegmentAndDeletesIt() {
+		Path segment = segment();
+
+		loader.load();
+
+		assertEquals(List.of(1L, 2L, 3L), saved);
+		assertFalse(Files.exists(segment));
+		assertFalse(Files.exists(segment.resolveSibling(segment.getFileName() + ".loaded")));
+	}
+
+	@Test
+	void resumesFromTheCheckpoint() throws IOException {
+		Path segment = segment();
+		AuditJournal.Reader reader = AuditJournal.read(segment, 0);
+		reader.next();
+		Files.writeString(segment.resolveSibling(segment.getFileName() + ".loaded"), Integer.toString(reader.position()));
+
+		loader.load();
+
+		assertEquals(List.of(2L, 3L), saved);
+	}
+
+	@Test
+	void loadsFromTheStartWhenTheCheckpointCannotBeRead() throws IOException {
+		Path segment = segment();
+		Files.writeString(segment.resolveSibling(segment.getFileName() + ".loaded"), "12x");
+
+		loader.load();
+
+		assertEquals(List.of(1L, 2L, 3L), saved);
+		assertFalse(Files.exists(segment));
+	}
+
+	@Test
+	void skipsAnEntryTheDatabaseRejects() {
+		Path segment = segment();
+		when(repo.saveAll(anyList())).thenAnswer(invocation -> {
+			List<AuditLog> batch = invocation.getArgument(0);
+			if (batch.stream().anyMatch(entry -> entry.getRecordId() == 2L)) {
+				throw new DataIntegrityViolationException("Data too long for column 'new_value'");
+			}
+			batch.forEach(entry -> saved.add(entry.getRecordId()));
+			return batch;
+		});
+
+		loader.load();
+
+		assertEquals(List.of(1L, 3L), saved);
+		assertFalse(Files.exists(segment));
+	}
+
+	@Test
+	void keepsTheSegmentWhenTheDatabaseIsDown() {
+		Path segment = segment();
+		when(repo.saveAll(anyList())).thenAnswer(invocation -> {
+			List<AuditLog> batch = invocation.getArgument(0);
+			if (batch.stream().anyMatch(entry -> entry.getRecordId() == 3L)) {
+				throw new IllegalStateException("Connection refused");
+			}
+			batch.forEach(entry -> saved.add(entry.getRecordId()));
+			return batch;
+		});
+
+		assertThrows(IllegalStateException.class, loader::load);
+		assertTrue(Files.exists(segment));
+
+		// The next run resumes after the batch that was saved
+		when(repo.saveAll(anyList())).thenAnswer(invocation -> {
+			List<AuditLog> batch = invocation.getArgument(0);
+			batch.forEach(entry -> saved.add(entry.getRecordId()));
+			return batch;
+		});
+		loader.load();
+
+		assertEquals(List.of(1L, 2L, 3L), saved);
+		assertFalse(Files.exists(segment));
+	}
+}
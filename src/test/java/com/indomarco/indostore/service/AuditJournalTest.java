@@ -0,0 +1,105 @@
+package com.indomarco.indostore.service;
+
+import com.indomarco.indostore.entity.AuditLog;
+import com.indomarco.indostore.entity.User;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class AuditJournalTest {
+	@TempDir
+	Path dir;
+
+	static AuditLog entry(Long recordId, String oldValue, String newValue) {
+		User user = new User();
+		user.setId(3L);
+		AuditLog entry = new AuditLog();
+		entry.setTimestamp(LocalDateTime.of(2026, 10, 16, 9, 30, 15, 123_456_789));
+		entry.setRecordId(recordId);
+		entry.setUser(user);
+		entry.setTableName("stores");
+		entry.setAction("UPDATE");
+		entry.setOldValue(oldValue);
+		entry.setNewValue(newValue);
+		return entry;
+	}
+
+	/** Appends the entries to a new journal, closes it and returns its only segment. */
+	static Path journal(Path dir, AuditLog... entries) {
+		AuditJournal journal = new AuditJournal(dir, DataSize.ofKilobytes(64), "journal");
+		journal.start();
+		for (AuditLog entry : entries) {
+			journal.append(entry);
+		}
+		journal.stop();
+		List<Path> segments = journal.sealedSegments();
+		assertEquals(1, segments.size());
+		return segments.get(0);
+	}
+
+	private static void assertSameEntry(AuditLog expected, AuditLog actual) {
+		assertEquals(expected.getTimestamp().withNano(123_456_000), actual.getTimestamp());
+		assertEquals(expected.getRecordId(), actual.getRecordId());
+		assertEquals(expected.getUser().getId(), actual.getUser().getId());
+		assertEquals(expected.getTableName(), actual.getTableName());
+		assertEquals(expected.getAction(), actual.getAction());
+		assertEquals(expected.getOldValue(), actual.getOldValue());
+		assertEquals(expected.getNewValue(), actual.getNewValue());
+	}
+
+	@Test
+	void readsBackWhatWasAppended() throws IOException {
+		AuditLog first = entry(7L, null, "{\"name\":\"Toko Maju\"}");
+		AuditLog second = entry(null, "{\"name\":\"Toko Maju\"}", "{\"name\":\"Toko Jaya é✓\"}");
+		Path segment = journal(dir, first, second);
+
+		AuditJournal.Reader reader = AuditJournal.read(segment, 0);
+		assertSameEntry(first, reader.next());
+		int afterFirst = reader.position();
+		assertSameEntry(second, reader.next());
+		assertNull(reader.next());
+
+		// Reading resumes from a position returned earlier
+		AuditJournal.Reader resumed = AuditJournal.read(segment, afterFirst);
+		assertSameEntry(second, resumed.next());
+		assertNull(resumed.next());
+	}
+
+	@Test
+	void stopsAtATornRecord() throws IOException {
+		AuditLog first = entry(1L, null, "{}");
+		AuditLog second = entry(2L, null, "{}");
+		Path segment = journal(dir, first, second);
+
+		AuditJournal.Reader reader = AuditJournal.read(segment, 0);
+		reader.next();
+		int torn = reader.position();
+		// Flip the last byte of the payload of the second record, as an interrupted append would leave it
+		int end = torn;
+		for (AuditJournal.Reader all = AuditJournal.read(segment, 0); all.next() != null; ) {
+			end = all.position();
+		}
+		try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+			ByteBuffer last = ByteBuffer.allocate(1);
+			channel.read(last, end - 1);
+			last.put(0, (byte) ~last.get(0));
+			channel.write(last.rewind(), end - 1);
+		}
+
+		reader = AuditJournal.read(segment, 0);
+		assertSameEntry(first, reader.next());
+		assertNull(reader.next());
+		assertEquals(torn, reader.position());
+	}
+}
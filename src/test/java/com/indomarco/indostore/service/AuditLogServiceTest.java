@@ -0,0 +1,29 @@
+package com.indomarco.indostore.service;
+
+import com.indomarco.indostore.repository.AuditLogRepository;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+
+class AuditLogServiceTest {
+
+	private static AuditLogService service(String mode) {
+		return new AuditLogService(mock(AuditLogRepository.class), mock(AuditLogWriter.class),
+				mock(AuditJournal.class), mode);
+	}
+
+	@Test
+	void acceptsTheKnownModes() {
+		assertDoesNotThrow(() -> service("async"));
+		assertDoesNotThrow(() -> service("Journal"));
+		assertDoesNotThrow(() -> service(" sync "));
+	}
+
+	@Test
+	void rejectsAnUnknownMode() {
+		assertThrows(IllegalArgumentException.class, () -> service("asnyc"));
+		assertThrows(IllegalArgumentException.class, () -> service(""));
+	}
+}
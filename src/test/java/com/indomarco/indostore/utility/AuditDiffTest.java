@@ -0,0 +1,76 @@
+package com.indomarco.indostore.utility;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.indomarco.indostore.entity.Branch;
+import com.indomarco.indostore.entity.Store;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class AuditDiffTest {
+	private final ObjectMapper mapper = new ObjectMapper();
+
+	private static Store store(String name, String address, long branchId) {
+		Branch branch = new Branch();
+		branch.setId(branchId);
+		Store store = new Store();
+		store.setName(name);
+		store.setAddress(address);
+		store.setBranch(branch);
+		return store;
+	}
+
+	@Test
+	void rendersEveryFieldOnCreation() throws Exception {
+		AuditDiff.Change change = AuditDiff.between(null, AuditDiff.of(store("Toko Maju", "Jl. Merdeka 1", 7)));
+
+		assertNull(change.oldValue());
+		assertEquals("{\"name\":\"Toko Maju\",\"address\":\"Jl. Merdeka 1\",\"isActive\":true,\"isDeleted\":false,\"branchId\":7}",
+				change.newValue());
+		assertEquals(7, mapper.readTree(change.newValue()).get("branchId").asLong());
+	}
+
+	@Test
+	void rendersOnlyTheChangedFields() throws Exception {
+		Store store = store("Toko Maju", "Jl. Merdeka 1", 7);
+		AuditDiff.State before = AuditDiff.of(store);
+		store.setIsActive(false);
+		store.setBranch(null);
+
+		AuditDiff.Change change = AuditDiff.between(before, AuditDiff.of(store));
+
+		assertEquals("{\"isActive\":true,\"branchId\":7}", change.oldValue());
+		assertEquals("{\"isActive\":false,\"branchId\":null}", change.newValue());
+		assertEquals(mapper.readTree("{\"isActive\":false,\"branchId\":null}"), mapper.readTree(change.newValue()));
+	}
+
+	@Test
+	void rendersNothingWhenNothingChanged() {
+		AuditDiff.State state = AuditDiff.of(store("Toko Maju", "Jl. Merdeka 1", 7));
+
+		assertEquals(new AuditDiff.Change(null, null),
+				AuditDiff.between(state, AuditDiff.of(store("Toko Maju", "Jl. Merdeka 1", 7))));
+		assertEquals(new AuditDiff.Change(null, null), AuditDiff.between(null, null));
+	}
+
+	@Test
+	void escapesStringsSoThatTheyParseBack() throws Exception {
+		String name = "Toko \"Maju\" C:\\Jaya / é✓";
+		StringBuilder address = new StringBuilder("Jl.");
+		for (char c = 0; c < 0x20; c++) {
+			address.append(c);
+		}
+		address.append("\u007f\u2028");
+
+		AuditDiff.Change change = AuditDiff.between(AuditDiff.of(store("Toko", "Jl.", 7)),
+				AuditDiff.of(store(name, address.toString(), 7)));
+
+		JsonNode json = mapper.readTree(change.newValue());
+		assertEquals(2, json.size());
+		assertEquals(name, json.get("name").asText());
+		assertEquals(address.toString(), json.get("address").asText());
+		assertEquals("Jl.", mapper.readTree(change.oldValue()).get("address").asText());
+	}
+}